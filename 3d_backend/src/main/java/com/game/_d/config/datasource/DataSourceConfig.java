@@ -0,0 +1,80 @@
+package com.game._d.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    // pool settings of the primary, same keys as Spring Boot's own pool (maximum-pool-size, connection-timeout...)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig primaryHikariConfig() {
+        return new HikariConfig();
+    }
+
+    // pool settings shared by every replica pool
+    @Bean
+    @ConfigurationProperties("game.datasource.replica.hikari")
+    public HikariConfig replicaHikariConfig() {
+        return new HikariConfig();
+    }
+
+    // spring.datasource.* is the primary, game.datasource.replica-urls the read pools (none = everything on the primary)
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            @Qualifier("primaryHikariConfig") HikariConfig primaryConfig,
+            @Qualifier("replicaHikariConfig") HikariConfig replicaConfig,
+            ReadAfterWriteTracker readAfterWriteTracker,
+            @Value("${game.datasource.replica-urls:}") List<String> replicaUrls,
+            @Value("${game.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${game.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${game.datasource.read.max-lag-ms:1000}") long maxLagMillis,
+            @Value("${game.datasource.read.lag-query:#{null}}") String lagQuery) {
+        HikariDataSource primary = pool(primaryConfig, "primary", properties.determineDriverClassName(),
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool(replicaConfig, "replica-" + i, properties.determineDriverClassName(),
+                    replicaUrls.get(i).trim(), replicaUsername, replicaPassword);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, readAfterWriteTracker, maxLagMillis, lagQuery);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // the pool only connects on first use
+    private static HikariDataSource pool(HikariConfig config, String name, String driverClassName,
+                                         String url, String username, String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        config.copyStateTo(dataSource);
+        dataSource.setPoolName(name);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
+    }
+}
@@ -0,0 +1,41 @@
+package com.game._d.config.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Exposes the playerId of the request (?playerId= or /{playerId}) to the datasource routing
+@Component
+@RequiredArgsConstructor
+public class PlayerRoutingInterceptor implements HandlerInterceptor {
+    private final ReadAfterWriteTracker readAfterWriteTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String playerId = request.getParameter("playerId");
+        if (playerId == null) {
+            Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            if (variables instanceof Map<?, ?> map) {
+                playerId = (String) map.get("playerId");
+            }
+        }
+        if (playerId != null) {
+            try {
+                readAfterWriteTracker.setCurrentPlayer(Long.valueOf(playerId));
+            } catch (NumberFormatException e) {
+                // invalid id, the controller will reject it
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        readAfterWriteTracker.clearCurrentPlayer();
+    }
+}
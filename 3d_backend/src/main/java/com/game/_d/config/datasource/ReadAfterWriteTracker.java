@@ -0,0 +1,64 @@
+package com.game._d.config.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Remembers which players wrote recently so their next reads go to the primary (read-your-writes).
+// The pin is per node: it only shapes reads, every read-modify-write must run in a read-write transaction.
+@Component
+public class ReadAfterWriteTracker {
+    private final ThreadLocal<Long> currentPlayer = new ThreadLocal<>();
+    private final ConcurrentMap<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long pinMillis;
+
+    public ReadAfterWriteTracker(@Value("${game.datasource.read.pin-after-write-ms:5000}") long pinMillis) {
+        this.pinMillis = pinMillis;
+    }
+
+    // set per request by PlayerRoutingInterceptor
+    public void setCurrentPlayer(Long playerId) {
+        currentPlayer.set(playerId);
+    }
+
+    public void clearCurrentPlayer() {
+        currentPlayer.remove();
+    }
+
+    // the pin window starts when the write is committed
+    public void markWrite(Long playerId) {
+        if (playerId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWrites.put(playerId, System.currentTimeMillis());
+                }
+            });
+        } else {
+            lastWrites.put(playerId, System.currentTimeMillis());
+        }
+    }
+
+    public boolean isCurrentPlayerPinned() {
+        Long playerId = currentPlayer.get();
+        if (playerId == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(playerId);
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < pinMillis;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void prune() {
+        long expired = System.currentTimeMillis() - pinMillis;
+        lastWrites.values().removeIf(lastWrite -> lastWrite < expired);
+    }
+}
@@ -0,0 +1,126 @@
+/*Route les transactions readOnly vers les réplicas
+
+- transaction en écriture ou sans transaction -> primary
+- joueur qui vient d'écrire (ReadAfterWriteTracker) -> primary
+- sinon round-robin sur les réplicas dont le retard est <= maxLagMillis
+- aucun réplica à jour -> primary
+
+Doit être enveloppée dans un LazyConnectionDataSourceProxy : le flag readOnly
+n'est connu qu'après l'ouverture de la transaction.*/
+package com.game._d.config.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    // 0 when the standby has replayed everything it received, otherwise the age of the last replayed transaction
+    static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                    + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final ReadAfterWriteTracker readAfterWriteTracker;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> eligibleReplicas = List.of();
+
+    // lagQuery: null = POSTGRES_LAG_QUERY, empty = only check that the replica answers
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      ReadAfterWriteTracker readAfterWriteTracker,
+                                      long maxLagMillis, String lagQuery) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readAfterWriteTracker = readAfterWriteTracker;
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery != null ? lagQuery : POSTGRES_LAG_QUERY;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicaLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readAfterWriteTracker.isCurrentPlayerPinned()) {
+            return PRIMARY;
+        }
+        List<String> eligible = eligibleReplicas;
+        if (eligible.isEmpty()) {
+            return PRIMARY;
+        }
+        return eligible.get(Math.floorMod(next.getAndIncrement(), eligible.size()));
+    }
+
+    // staleness policy: a replica stays out of rotation while it lags more than maxLagMillis or is unreachable
+    @Scheduled(fixedDelayString = "${game.datasource.read.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        List<String> eligible = new ArrayList<>(replicas.size());
+        replicas.forEach((name, replica) -> {
+            try {
+                long lag = lagOf(replica);
+                if (lag <= maxLagMillis) {
+                    eligible.add(name);
+                } else if (eligibleReplicas.contains(name)) {
+                    logger.warn("Replica {} is {} ms behind, reads go elsewhere", name, lag);
+                }
+            } catch (SQLException e) {
+                if (eligibleReplicas.contains(name)) {
+                    logger.warn("Replica {} is unreachable, reads go elsewhere", name, e);
+                }
+            }
+        });
+        eligibleReplicas = List.copyOf(eligible);
+    }
+
+    private long lagOf(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection()) {
+            if (lagQuery.isEmpty()) {
+                return connection.isValid(1) ? 0 : Long.MAX_VALUE;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
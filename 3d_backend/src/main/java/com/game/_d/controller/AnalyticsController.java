@@ -0,0 +1,32 @@
+package com.game._d.controller;
+
+import com.game._d.service.QuizAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://127.0.0.1:5173")
+public class AnalyticsController {
+    private final QuizAnalyticsService quizAnalyticsService;
+
+    // correctness rate and option distribution of every quiz
+    @GetMapping("/quizzes")
+    public ResponseEntity<List<QuizAnalyticsService.QuizStatsView>> getQuizStats() {
+        return ResponseEntity.ok(quizAnalyticsService.getQuizStats());
+    }
+
+    @GetMapping("/quizzespoints")
+    public ResponseEntity<List<QuizAnalyticsService.GroupStatsView>> getQuizPointStats() {
+        return ResponseEntity.ok(quizAnalyticsService.getQuizPointStats());
+    }
+
+    @GetMapping("/phases")
+    public ResponseEntity<List<QuizAnalyticsService.GroupStatsView>> getPhaseStats() {
+        return ResponseEntity.ok(quizAnalyticsService.getPhaseStats());
+    }
+}
@@ -0,0 +1,38 @@
+package com.game._d.controller;
+
+import com.game._d.position.PlayerPhaseCache;
+import com.game._d.position.PlayerPositionBuffer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/positions")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://127.0.0.1:5173")
+public class PositionController {
+    private final PlayerPositionBuffer playerPositionBuffer;
+    private final PlayerPhaseCache playerPhaseCache;
+
+    // position heartbeat: only the latest position per player is kept, nothing is written to the database.
+    // The phase comes from the player's record, never from the client.
+    @PostMapping
+    public ResponseEntity<Void> reportPosition(@RequestBody PositionRequest request, HttpServletRequest httpRequest) {
+        if (request.playerId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        long phaseId = playerPhaseCache.phaseOf(request.playerId());
+        if (phaseId == PlayerPhaseCache.UNKNOWN) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean accepted = playerPositionBuffer.offer(
+                request.playerId(), phaseId, httpRequest.getRemoteAddr(), request.x(), request.y(), request.z());
+        return accepted
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    public record PositionRequest(Long playerId, float x, float y, float z) {}
+}
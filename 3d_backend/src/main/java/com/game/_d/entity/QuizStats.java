@@ -0,0 +1,22 @@
+package com.game._d.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Answer counts of one quiz summed over every node (incremented by QuizAnalyticsService.snapshot);
+// the per-option counts are in quiz_option_stats
+@Entity
+@Data
+public class QuizStats {
+    @Id
+    private Long quizId;
+
+    private Long quizPointId;
+    private Long phaseId;
+    private Long attempts = 0L;
+    private Long correctCount = 0L;
+
+    private LocalDateTime updatedAt;
+}
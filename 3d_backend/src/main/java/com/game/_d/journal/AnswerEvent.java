@@ -0,0 +1,76 @@
+package com.game._d.journal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+// One journal record, stored as a fixed 48-byte record:
+// magic | chosenIndex | playerId | quizId | timestamp | correct | kind | padding | scoreAfter | padding | crc32
+//
+// kind ANSWER: one submitAnswer call, scoreAfter = player's totalScore after it (-1 for a wrong answer)
+// kind GAP: written by the journal when events were dropped, quizId = number of events lost
+public record AnswerEvent(byte kind, long playerId, long quizId, int chosenIndex, boolean correct,
+                          int scoreAfter, long timestamp) {
+    public static final byte ANSWER = 0;
+    public static final byte GAP = 1;
+
+    static final int RECORD_SIZE = 48;
+    private static final int MAGIC = 0x414E5332; // "ANS2"
+    private static final int CHECKSUMMED_BYTES = RECORD_SIZE - Integer.BYTES;
+
+    public static AnswerEvent answer(long playerId, long quizId, int chosenIndex, boolean correct,
+                                     int scoreAfter, long timestamp) {
+        return new AnswerEvent(ANSWER, playerId, quizId, chosenIndex, correct, scoreAfter, timestamp);
+    }
+
+    static AnswerEvent gap(long droppedCount, long timestamp) {
+        return new AnswerEvent(GAP, 0, droppedCount, -1, false, -1, timestamp);
+    }
+
+    public boolean isGap() {
+        return kind == GAP;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(MAGIC);
+        buffer.putInt(chosenIndex);
+        buffer.putLong(playerId);
+        buffer.putLong(quizId);
+        buffer.putLong(timestamp);
+        buffer.put((byte) (correct ? 1 : 0));
+        buffer.put(kind);
+        buffer.putShort((short) 0);
+        buffer.putInt(scoreAfter);
+        buffer.putInt(0);
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    // returns null at the end of the written data (zeroed space or a torn record)
+    static AnswerEvent readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        if (buffer.getInt(start) != MAGIC
+                || buffer.getInt(start + CHECKSUMMED_BYTES) != checksum(buffer, start)) {
+            return null;
+        }
+        AnswerEvent event = new AnswerEvent(
+                buffer.get(start + 33),
+                buffer.getLong(start + 8),
+                buffer.getLong(start + 16),
+                buffer.getInt(start + 4),
+                buffer.get(start + 32) == 1,
+                buffer.getInt(start + 36),
+                buffer.getLong(start + 24)
+        );
+        buffer.position(start + RECORD_SIZE);
+        return event;
+    }
+
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(start + CHECKSUMMED_BYTES).position(start));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,275 @@
+/*Journal append-only des réponses aux quiz
+
+Chaque submitAnswer est ajouté à des segments mappés en mémoire (answers-<seq>.journal)
+par un thread d'écriture dédié qui regroupe les commits (un force() par lot).
+Sert à l'audit et à la reconstruction des scores (JournalReplayService).
+
+Un seul processus peut ouvrir un répertoire de journal (verrou journal.lock).*/
+package com.game._d.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+@Component
+public class AnswerJournal {
+    private static final Logger logger = LoggerFactory.getLogger(AnswerJournal.class);
+    private static final String LOCK_FILE = "journal.lock";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int batchSize;
+    private final BlockingQueue<AnswerEvent> queue;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // held by the writer thread for each batch, and by flush()
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private long droppedJournaled;
+
+    private volatile boolean running;
+    private Thread writer;
+    private JournalSegment active;
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    public AnswerJournal(@Value("${game.journal.enabled:true}") boolean enabled,
+                         @Value("${game.journal.directory:data/journal}") String directory,
+                         @Value("${game.journal.segment-size:64MB}") DataSize segmentSize,
+                         @Value("${game.journal.max-segments:0}") int maxSegments,
+                         @Value("${game.journal.queue-capacity:65536}") int queueCapacity,
+                         @Value("${game.journal.batch-size:1024}") int batchSize) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.maxSegments = maxSegments;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        open();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "answer-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Answer journal opened at {} (segment {})", directory.toAbsolutePath(), active.sequence());
+    }
+
+    // locks the directory and positions the active segment after its last valid record
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // already held in this JVM
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Answer journal " + directory.toAbsolutePath()
+                    + " is already open in another process");
+        }
+
+        List<Path> segments = JournalSegment.list(directory);
+        long sequence = segments.isEmpty() ? 1 : JournalSegment.sequenceOf(segments.get(segments.size() - 1));
+        active = JournalSegment.open(directory, sequence, segmentSize);
+        if (!active.hasRoom()) {
+            roll();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (lock == null) {
+            return;
+        }
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        lock.release();
+        lock = null;
+        lockChannel.close();
+    }
+
+    // Never blocks: callers invoke it once the answer's transaction has committed
+    public void record(Long playerId, Long quizId, Integer chosenIndex, boolean correct, int scoreAfter) {
+        if (!enabled) {
+            return;
+        }
+        enqueue(AnswerEvent.answer(
+                playerId != null ? playerId : 0L,
+                quizId != null ? quizId : 0L,
+                chosenIndex != null ? chosenIndex : -1,
+                correct,
+                scoreAfter,
+                System.currentTimeMillis()
+        ));
+    }
+
+    // writes and forces everything accepted so far
+    public void flush() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<AnswerEvent> batch = new ArrayList<>();
+        writeLock.lock();
+        try {
+            queue.drainTo(batch);
+            write(batch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Reads every event still retained on disk, oldest first.
+    // Events accepted but not yet written by the writer thread are not included, call flush() first.
+    public void replay(Consumer<AnswerEvent> consumer) throws IOException {
+        for (Path segment : JournalSegment.list(directory)) {
+            JournalSegment.read(segment, consumer);
+        }
+    }
+
+    // false once retention has deleted a segment, or if a segment file is missing
+    public boolean isComplete() throws IOException {
+        List<Path> segments = JournalSegment.list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (JournalSegment.sequenceOf(segments.get(i)) != i + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void enqueue(AnswerEvent event) {
+        if (!queue.offer(event)) {
+            // never block a request on the journal: count the loss, a GAP record marks it on disk
+            long count = dropped.incrementAndGet();
+            if (count % 1000 == 1) {
+                logger.warn("Answer journal queue full, {} events dropped so far", count);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<AnswerEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AnswerEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                writeLock.lock();
+                try {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                } finally {
+                    writeLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to write {} answer events to the journal", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // group commit: one force() for the whole batch.
+    // Events that did not reach the disk are counted as dropped, so the next write leaves a GAP record.
+    private void write(List<AnswerEvent> batch) throws IOException {
+        int written = 0;
+        try {
+            long droppedNow = dropped.get();
+            if (droppedNow > droppedJournaled) {
+                append(AnswerEvent.gap(droppedNow - droppedJournaled, System.currentTimeMillis()));
+                droppedJournaled = droppedNow;
+            }
+            for (AnswerEvent event : batch) {
+                append(event);
+                written++;
+            }
+        } catch (IOException | RuntimeException e) {
+            dropped.addAndGet(batch.size() - written);
+            throw e;
+        }
+        try {
+            active.force();
+        } catch (RuntimeException e) {
+            // UncheckedIOException from the mapped buffer: the whole batch may still be only in memory
+            dropped.addAndGet(batch.size());
+            throw e;
+        }
+    }
+
+    private void append(AnswerEvent event) throws IOException {
+        if (!active.hasRoom()) {
+            roll();
+        }
+        active.append(event);
+    }
+
+    private void roll() throws IOException {
+        active.force();
+        active = JournalSegment.open(directory, active.sequence() + 1, segmentSize);
+        applyRetention();
+    }
+
+    // keep only the newest maxSegments files (0 = keep everything)
+    private void applyRetention() throws IOException {
+        if (maxSegments <= 0) {
+            return;
+        }
+        List<Path> segments = JournalSegment.list(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Path segment = segments.get(i);
+            if (JournalSegment.sequenceOf(segment) >= active.sequence()) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segment);
+                logger.info("Answer journal segment {} removed by retention", segment.getFileName());
+            } catch (IOException e) {
+                // may still be mapped (Windows); retried on the next roll
+                logger.warn("Could not delete answer journal segment {}", segment.getFileName(), e);
+            }
+        }
+    }
+}
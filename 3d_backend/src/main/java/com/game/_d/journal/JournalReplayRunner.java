@@ -0,0 +1,41 @@
+package com.game._d.journal;
+
+import com.game._d.service.JournalReplayService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+// Offline replay tool, with the game server stopped (the journal lock refuses a second process):
+//   java -jar 3d-0.0.1-SNAPSHOT.jar --journal-replay --spring.main.web-application-type=none
+@Component
+@RequiredArgsConstructor
+public class JournalReplayRunner implements ApplicationRunner {
+    static final String OPTION = "journal-replay";
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayRunner.class);
+
+    private final JournalReplayService journalReplayService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        int exitCode;
+        try {
+            JournalReplayService.ReplayResult result = journalReplayService.replay();
+            logger.info("Journal replay done: {}", result);
+            exitCode = 0;
+        } catch (RuntimeException e) {
+            logger.error("Journal replay failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
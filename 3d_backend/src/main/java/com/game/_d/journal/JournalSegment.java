@@ -0,0 +1,98 @@
+package com.game._d.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// A single memory-mapped journal file: answers-<sequence>.journal
+final class JournalSegment {
+    private static final String PREFIX = "answers-";
+    private static final String SUFFIX = ".journal";
+
+    private final long sequence;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(long sequence, Path path, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    // Maps the segment and moves the write position past the records already in it
+    static JournalSegment open(Path directory, long sequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(sequence));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), size));
+        }
+        while (AnswerEvent.readFrom(buffer) != null) {
+            // skip existing records
+        }
+        return new JournalSegment(sequence, path, buffer);
+    }
+
+    static void read(Path path, Consumer<AnswerEvent> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        AnswerEvent event;
+        while ((event = AnswerEvent.readFrom(buffer)) != null) {
+            consumer.accept(event);
+        }
+    }
+
+    // segment files ordered from oldest to newest
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    boolean hasRoom() {
+        return buffer.remaining() >= AnswerEvent.RECORD_SIZE;
+    }
+
+    void append(AnswerEvent event) {
+        event.writeTo(buffer);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    Path path() {
+        return path;
+    }
+}
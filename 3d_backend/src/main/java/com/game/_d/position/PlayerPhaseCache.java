@@ -0,0 +1,69 @@
+/*Phase courante de chaque joueur pour les heartbeats de position
+
+La phase n'est jamais prise du client : elle est lue dans player.current_phase et gardée
+en mémoire game.positions.phase-cache-ttl-ms. Les joueurs inconnus sont aussi mémorisés
+(cache négatif borné) pour qu'un client ne puisse pas faire une requête base par heartbeat.*/
+package com.game._d.position;
+
+import com.game._d.repository.PlayerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+public class PlayerPhaseCache {
+    public static final long UNKNOWN = 0;
+
+    private final PlayerRepository playerRepository;
+    private final long ttlMillis;
+    private final int maxUnknown;
+
+    private final ConcurrentMap<Long, Entry> phases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> unknown = new ConcurrentHashMap<>(); // player -> expiry
+
+    public PlayerPhaseCache(PlayerRepository playerRepository,
+                            @Value("${game.positions.phase-cache-ttl-ms:10000}") long ttlMillis,
+                            @Value("${game.positions.max-unknown-players:10000}") int maxUnknown) {
+        this.playerRepository = playerRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxUnknown = maxUnknown;
+    }
+
+    // current phase id of the player, UNKNOWN (0) if the player does not exist
+    public long phaseOf(Long playerId) {
+        long now = System.currentTimeMillis();
+        Entry entry = phases.get(playerId);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.phaseId;
+        }
+        Long unknownUntil = unknown.get(playerId);
+        if (unknownUntil != null && unknownUntil > now) {
+            return UNKNOWN;
+        }
+
+        Integer phase = playerRepository.findCurrentPhaseById(playerId).orElse(null);
+        if (phase == null) {
+            phases.remove(playerId);
+            if (unknown.size() >= maxUnknown) {
+                unknown.clear(); // bound the memory a client can fill with made-up ids
+            }
+            unknown.put(playerId, now + ttlMillis);
+            return UNKNOWN;
+        }
+        phases.put(playerId, new Entry(phase, now + ttlMillis));
+        unknown.remove(playerId);
+        return phase;
+    }
+
+    @Scheduled(fixedDelayString = "${game.positions.idle-eviction-ms:300000}")
+    public void pruneExpired() {
+        long now = System.currentTimeMillis();
+        phases.values().removeIf(entry -> entry.expiresAt <= now);
+        unknown.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private record Entry(long phaseId, long expiresAt) {}
+}
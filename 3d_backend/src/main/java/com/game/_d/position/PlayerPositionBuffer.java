@@ -0,0 +1,232 @@
+/*Dernière position connue de chaque joueur, sans allocation par mise à jour
+
+- un slot pré-alloué par joueur (tableaux primitifs), écrit sous seqlock
+- un slot n'est publié dans l'anneau que s'il passe de propre à sale :
+  plusieurs heartbeats avant lecture sont fusionnés, seule la dernière position est lue
+- l'anneau a autant de cases que de slots, il ne peut donc jamais déborder
+- un seul consommateur (QuizPointTriggerDetector) vide l'anneau par lots
+- une même source (adresse IP) ne peut occuper que game.positions.max-players-per-source slots,
+  pour qu'un client ne puisse pas épuiser les slots avec des identifiants de joueurs*/
+package com.game._d.position;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class PlayerPositionBuffer {
+    private static final int EMPTY = -1;
+
+    private final int capacity;
+    private final long idleMillis;
+    private final int maxPlayersPerSource;
+
+    // player -> slot, slots are recycled when a player stops reporting
+    private final ConcurrentMap<Long, Integer> slots = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final ConcurrentMap<String, Integer> claimsBySource = new ConcurrentHashMap<>();
+    private final String[] sources; // source that claimed each slot, guarded by the slot's seqlock
+
+    // slot data, guarded by the per-slot seqlock (odd version = being written)
+    private final AtomicLongArray versions;
+    private final long[] owners;
+    private final long[] phaseIds;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    private final long[] lastSeen;
+    private final AtomicIntegerArray dirty;
+
+    // MPSC ring of dirty slot indexes
+    private final AtomicIntegerArray ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // consumer thread only
+
+    public PlayerPositionBuffer(@Value("${game.positions.capacity:65536}") int capacity,
+                                @Value("${game.positions.idle-eviction-ms:300000}") long idleMillis,
+                                @Value("${game.positions.max-players-per-source:64}") int maxPlayersPerSource) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.idleMillis = idleMillis;
+        this.maxPlayersPerSource = maxPlayersPerSource;
+        this.sources = new String[this.capacity];
+        this.versions = new AtomicLongArray(this.capacity);
+        this.owners = new long[this.capacity];
+        this.phaseIds = new long[this.capacity];
+        this.xs = new float[this.capacity];
+        this.ys = new float[this.capacity];
+        this.zs = new float[this.capacity];
+        this.lastSeen = new long[this.capacity];
+        this.dirty = new AtomicIntegerArray(this.capacity);
+        this.ring = new AtomicIntegerArray(this.capacity);
+        this.mask = this.capacity - 1;
+        for (int i = 0; i < this.capacity; i++) {
+            ring.set(i, EMPTY);
+        }
+    }
+
+    public interface PositionVisitor {
+        void visit(int slot, long playerId, long phaseId, float x, float y, float z);
+    }
+
+    // request thread: overwrite the player's slot and publish it if it was clean.
+    // false = buffer full, or the source already holds maxPlayersPerSource slots
+    public boolean offer(Long playerId, long phaseId, String source, float x, float y, float z) {
+        while (true) {
+            Integer slot = slots.get(playerId);
+            if (slot == null) {
+                slot = slots.computeIfAbsent(playerId, id -> claimSlot(id, source));
+                if (slot == null) {
+                    return false;
+                }
+            }
+            int i = slot;
+            long version = lock(i);
+            if (owners[i] != playerId) {
+                // slot recycled between the lookup and the lock
+                versions.set(i, version + 2);
+                continue;
+            }
+            phaseIds[i] = phaseId;
+            xs[i] = x;
+            ys[i] = y;
+            zs[i] = z;
+            lastSeen[i] = System.currentTimeMillis();
+            versions.set(i, version + 2);
+
+            if (dirty.compareAndSet(i, 0, 1)) {
+                ring.set((int) (tail.getAndIncrement() & mask), i);
+            }
+            return true;
+        }
+    }
+
+    // consumer thread: visit up to max dirty slots, each with the latest position written to it
+    public int drain(PositionVisitor visitor, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (head & mask);
+            int i = ring.get(index);
+            if (i == EMPTY) {
+                break;
+            }
+            ring.set(index, EMPTY);
+            head++;
+            // cleared before reading: a newer update published from now on is seen on a later drain
+            dirty.set(i, 0);
+
+            long version;
+            long owner;
+            long phaseId;
+            float x;
+            float y;
+            float z;
+            do {
+                version = versions.get(i);
+                owner = owners[i];
+                phaseId = phaseIds[i];
+                x = xs[i];
+                y = ys[i];
+                z = zs[i];
+                VarHandle.acquireFence();
+            } while ((version & 1) != 0 || version != versions.get(i));
+
+            if (owner != 0) {
+                visitor.visit(i, owner, phaseId, x, y, z);
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // slot of a player, -1 if the player has not reported a position
+    public int slotOf(Long playerId) {
+        Integer slot = slots.get(playerId);
+        return slot != null ? slot : -1;
+    }
+
+    @Scheduled(fixedDelayString = "${game.positions.idle-eviction-ms:300000}")
+    public void evictIdlePlayers() {
+        long expired = System.currentTimeMillis() - idleMillis;
+        slots.forEach((playerId, slot) -> {
+            int i = slot;
+            long version = lock(i);
+            boolean idle = lastSeen[i] < expired;
+            String source = sources[i];
+            if (idle) {
+                owners[i] = 0;
+                sources[i] = null;
+            }
+            versions.set(i, version + 2);
+            if (idle && slots.remove(playerId, slot)) {
+                releaseClaim(source);
+                freeSlots.offer(slot);
+            }
+        });
+    }
+
+    private Integer claimSlot(Long playerId, String source) {
+        if (!acquireClaim(source)) {
+            return null;
+        }
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            int next = nextSlot.getAndIncrement();
+            if (next >= capacity) {
+                nextSlot.set(capacity);
+                releaseClaim(source);
+                return null;
+            }
+            slot = next;
+        }
+        int i = slot;
+        long version = lock(i);
+        owners[i] = playerId;
+        lastSeen[i] = System.currentTimeMillis();
+        sources[i] = source;
+        versions.set(i, version + 2);
+        return slot;
+    }
+
+    private boolean acquireClaim(String source) {
+        boolean[] acquired = new boolean[1];
+        claimsBySource.compute(source, (s, claims) -> {
+            int count = claims != null ? claims : 0;
+            if (count >= maxPlayersPerSource) {
+                return claims;
+            }
+            acquired[0] = true;
+            return count + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseClaim(String source) {
+        claimsBySource.computeIfPresent(source, (s, claims) -> claims > 1 ? claims - 1 : null);
+    }
+
+    // returns the even version the slot had; release with versions.set(i, version + 2)
+    private long lock(int i) {
+        while (true) {
+            long version = versions.get(i);
+            if ((version & 1) == 0 && versions.compareAndSet(i, version, version + 1)) {
+                return version;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.game._d.position;
+
+// Published by QuizPointTriggerDetector when a player moves into a quiz point trigger sphere
+public record QuizPointEnteredEvent(Long playerId, Long quizPointId, Long phaseId, long timestamp) {}
@@ -0,0 +1,180 @@
+/*Détection côté serveur de l'entrée dans un QuizPoint
+
+Un thread unique vide PlayerPositionBuffer par lots et teste chaque position contre les sphères
+(positionX/Y/Z, triggerRadius) des QuizPoint de la phase. Les sphères sont gardées en mémoire
+(chargées une fois l'application prête, puis rechargées périodiquement) : aucune requête base de données par position.*/
+package com.game._d.position;
+
+import com.game._d.entity.QuizPoint;
+import com.game._d.repository.QuizPointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+@Component
+@Lazy(false) // the consumer thread must run even when spring.main.lazy-initialization is on
+public class QuizPointTriggerDetector implements PlayerPositionBuffer.PositionVisitor {
+    private static final Logger logger = LoggerFactory.getLogger(QuizPointTriggerDetector.class);
+
+    private final PlayerPositionBuffer playerPositionBuffer;
+    private final QuizPointRepository quizPointRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    // per buffer slot: player and quiz point the player is currently inside (0 = none)
+    private final AtomicLongArray insidePlayers;
+    private final AtomicLongArray insideQuizPoints;
+
+    private volatile Map<Long, PhaseTriggers> triggersByPhase = Map.of();
+    private volatile boolean running;
+    private Thread consumer;
+
+    public QuizPointTriggerDetector(PlayerPositionBuffer playerPositionBuffer,
+                                    QuizPointRepository quizPointRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${game.positions.batch-size:4096}") int batchSize) {
+        this.playerPositionBuffer = playerPositionBuffer;
+        this.quizPointRepository = quizPointRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.insidePlayers = new AtomicLongArray(playerPositionBuffer.capacity());
+        this.insideQuizPoints = new AtomicLongArray(playerPositionBuffer.capacity());
+    }
+
+    // no database access here: the trigger spheres are loaded once the application is ready
+    @PostConstruct
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consumeLoop, "quiz-point-trigger-detector");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTriggers() {
+        refreshTriggers();
+    }
+
+    // quiz points rarely change: reload the trigger spheres instead of querying per position.
+    // On failure the previous spheres stay in use until the next refresh.
+    @Scheduled(fixedDelayString = "${game.positions.trigger-refresh-ms:60000}",
+            initialDelayString = "${game.positions.trigger-refresh-ms:60000}")
+    public void refreshTriggers() {
+        try {
+            Map<Long, List<QuizPoint>> byPhase = quizPointRepository.findAll().stream()
+                    .filter(p -> p.getPhase() != null && p.getPositionX() != null
+                            && p.getPositionY() != null && p.getPositionZ() != null)
+                    .collect(Collectors.groupingBy(p -> p.getPhase().getId()));
+
+            Map<Long, PhaseTriggers> triggers = new HashMap<>();
+            byPhase.forEach((phaseId, points) -> triggers.put(phaseId, new PhaseTriggers(points)));
+            triggersByPhase = triggers;
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload quiz point triggers, keeping the {} phases already loaded",
+                    triggersByPhase.size(), e);
+        }
+    }
+
+    // server-side proximity check, e.g. before accepting an answer for a quiz point
+    public boolean isInside(Long playerId, Long quizPointId) {
+        if (playerId == null || quizPointId == null) {
+            return false;
+        }
+        int slot = playerPositionBuffer.slotOf(playerId);
+        return slot >= 0
+                && insidePlayers.get(slot) == playerId
+                && insideQuizPoints.get(slot) == quizPointId;
+    }
+
+    @Override
+    public void visit(int slot, long playerId, long phaseId, float x, float y, float z) {
+        PhaseTriggers triggers = triggersByPhase.get(phaseId);
+        long quizPointId = triggers != null ? triggers.find(x, y, z) : 0;
+
+        long previous = insidePlayers.get(slot) == playerId ? insideQuizPoints.get(slot) : 0;
+        if (quizPointId == previous) {
+            return;
+        }
+        insidePlayers.set(slot, playerId);
+        insideQuizPoints.set(slot, quizPointId);
+        if (quizPointId != 0) {
+            logger.debug("Player {} entered quiz point {}", playerId, quizPointId);
+            eventPublisher.publishEvent(
+                    new QuizPointEnteredEvent(playerId, quizPointId, phaseId, System.currentTimeMillis()));
+        }
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            try {
+                if (playerPositionBuffer.drain(this, batchSize) == 0) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Quiz point trigger detection failed", e);
+            }
+        }
+    }
+
+    // trigger spheres of one phase, packed in primitive arrays
+    private static final class PhaseTriggers {
+        private final long[] ids;
+        private final float[] xs;
+        private final float[] ys;
+        private final float[] zs;
+        private final float[] squaredRadii;
+
+        PhaseTriggers(List<QuizPoint> points) {
+            int n = points.size();
+            ids = new long[n];
+            xs = new float[n];
+            ys = new float[n];
+            zs = new float[n];
+            squaredRadii = new float[n];
+            for (int i = 0; i < n; i++) {
+                QuizPoint point = points.get(i);
+                float radius = point.getTriggerRadius() != null ? point.getTriggerRadius() : 1.0f;
+                ids[i] = point.getId();
+                xs[i] = point.getPositionX();
+                ys[i] = point.getPositionY();
+                zs[i] = point.getPositionZ();
+                squaredRadii[i] = radius * radius;
+            }
+        }
+
+        // id of the first sphere containing the position, 0 if none
+        long find(float x, float y, float z) {
+            for (int i = 0; i < ids.length; i++) {
+                float dx = x - xs[i];
+                float dy = y - ys[i];
+                float dz = z - zs[i];
+                if (dx * dx + dy * dy + dz * dz <= squaredRadii[i]) {
+                    return ids[i];
+                }
+            }
+            return 0;
+        }
+    }
+}
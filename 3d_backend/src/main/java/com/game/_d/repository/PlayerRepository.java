@@ -4,7 +4,14 @@ package com.game._d.repository;
 
 import com.game._d.entity.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface PlayerRepository extends JpaRepository<Player, Long> {
+    // phase only, without loading the player's rewards
+    @Query("select p.currentPhase from Player p where p.id = :id")
+    Optional<Integer> findCurrentPhaseById(@Param("id") Long id);
 }
 
@@ -0,0 +1,7 @@
+package com.game._d.repository;
+
+import com.game._d.entity.QuizStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface QuizStatsRepository extends JpaRepository<QuizStats, Long>, QuizStatsRepositoryCustom {
+}
@@ -0,0 +1,17 @@
+package com.game._d.repository;
+
+import java.util.List;
+import java.util.Map;
+
+// Increments of quiz_stats / quiz_option_stats: several nodes add their own counts to the same rows
+public interface QuizStatsRepositoryCustom {
+
+    // adds the counts to the stored ones (rows are created on first use), one JDBC batch per table
+    void addCounts(List<QuizStatsIncrement> increments);
+
+    // quiz id -> answers per option index
+    Map<Long, long[]> findAllOptionCounts();
+
+    record QuizStatsIncrement(Long quizId, Long quizPointId, Long phaseId,
+                              long attempts, long correct, long[] options) {}
+}
@@ -0,0 +1,74 @@
+package com.game._d.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class QuizStatsRepositoryImpl implements QuizStatsRepositoryCustom {
+    private static final String ADD_STATS = """
+            INSERT INTO quiz_stats (quiz_id, quiz_point_id, phase_id, attempts, correct_count, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (quiz_id) DO UPDATE SET
+                quiz_point_id = EXCLUDED.quiz_point_id,
+                phase_id = EXCLUDED.phase_id,
+                attempts = quiz_stats.attempts + EXCLUDED.attempts,
+                correct_count = quiz_stats.correct_count + EXCLUDED.correct_count,
+                updated_at = EXCLUDED.updated_at""";
+
+    private static final String ADD_OPTION = """
+            INSERT INTO quiz_option_stats (quiz_id, option_index, answers)
+            VALUES (?, ?, ?)
+            ON CONFLICT (quiz_id, option_index) DO UPDATE SET
+                answers = quiz_option_stats.answers + EXCLUDED.answers""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // callers pass the increments sorted by quiz id so that concurrent nodes lock the rows in the same order
+    @Override
+    public void addCounts(List<QuizStatsIncrement> increments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> stats = new ArrayList<>(increments.size());
+        List<Object[]> options = new ArrayList<>();
+        for (QuizStatsIncrement increment : increments) {
+            stats.add(new Object[]{increment.quizId(), increment.quizPointId(), increment.phaseId(),
+                    increment.attempts(), increment.correct(), now});
+            for (int i = 0; i < increment.options().length; i++) {
+                if (increment.options()[i] != 0) {
+                    options.add(new Object[]{increment.quizId(), i, increment.options()[i]});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(ADD_STATS, stats);
+        if (!options.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_OPTION, options);
+        }
+    }
+
+    @Override
+    public Map<Long, long[]> findAllOptionCounts() {
+        Map<Long, long[]> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT quiz_id, option_index, answers FROM quiz_option_stats ORDER BY quiz_id, option_index",
+                rs -> {
+                    long quizId = rs.getLong(1);
+                    int index = rs.getInt(2);
+                    long[] quizCounts = counts.get(quizId);
+                    if (quizCounts == null || quizCounts.length <= index) {
+                        long[] grown = new long[index + 1];
+                        if (quizCounts != null) {
+                            System.arraycopy(quizCounts, 0, grown, 0, quizCounts.length);
+                        }
+                        quizCounts = grown;
+                        counts.put(quizId, quizCounts);
+                    }
+                    quizCounts[index] = rs.getLong(3);
+                });
+        return counts;
+    }
+}
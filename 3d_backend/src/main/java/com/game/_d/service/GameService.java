@@ -3,12 +3,14 @@
 Exemple: créer un joueur, récupérer les quiz d'un point*/
 package com.game._d.service;
 
+import com.game._d.config.datasource.ReadAfterWriteTracker;
 import com.game._d.entity.*;
 import com.game._d.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,24 +30,32 @@ public class GameService {
     private final RewardRepository rewardRepository;
     private final SkinRepository skinRepository;
     private final BadgeRepository badgeRepository;
+    private final ReadAfterWriteTracker readAfterWriteTracker;
     private static final Logger logger = LoggerFactory.getLogger(GameService.class);
 
+    @Transactional
     public Player createPlayer(String username) {
         Player player = new Player();
         player.setUsername(username);
-        return playerRepository.save(player);
+        Player saved = playerRepository.save(player);
+        readAfterWriteTracker.markWrite(saved.getId());
+        return saved;
     }
 
 // find the correct quiz with correct points and correct phase 
+    @Transactional(readOnly = true)
     public List<Quiz> getQuizzesForPoint(Long pointId) {
         return quizRepository.findByQuizPointId(pointId);
     }
 
+    @Transactional(readOnly = true)
     public List<Skin> getAllSkins() {
         return skinRepository.findAll();
     }
 
 
+    // read-modify-write: the player must be read from the primary, not a replica
+    @Transactional
     public void equipSkin(Long playerId, Long skinId) {
         Player player = playerRepository.findById(playerId)
                 .orElseThrow(() -> new RuntimeException("Player not found"));
@@ -67,14 +77,17 @@ public class GameService {
         // Update player's equipped skin
         player.setEquippedSkinPath(skin.getModelPath());
         playerRepository.save(player);
+        readAfterWriteTracker.markWrite(playerId);
     }
 
+    @Transactional(readOnly = true)
     public List<Badge> getAllBadges() {
         return badgeRepository.findAll();
     }
 
 
 
+    @Transactional(readOnly = true)
     public List<Badge> getUnlockedBadges(Long playerId) {
         Player player = playerRepository.findById(playerId)
                 .orElseThrow(() -> new RuntimeException("Player not found"));
@@ -96,6 +109,7 @@ public class GameService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<Skin> getUnlockedSkins(Long playerId) {
 
         Player player = playerRepository.findById(playerId)
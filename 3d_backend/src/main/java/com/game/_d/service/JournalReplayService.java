@@ -0,0 +1,95 @@
+/*Reconstruit l'état des joueurs à partir du journal des réponses
+
+totalScore = score enregistré par la dernière bonne réponse journalisée (absolu : les points gagnés
+avant la création du journal sont conservés)
+récompenses PASS_QUIZZES:n = une par palier atteint (même règle que QuizService.checkForRewards)
+
+Seuls les joueurs présents dans le journal sont modifiés. Refusé si le journal est incomplet
+(événements perdus ou segments supprimés par la rétention).*/
+package com.game._d.service;
+
+import com.game._d.entity.Player;
+import com.game._d.entity.Reward;
+import com.game._d.journal.AnswerJournal;
+import com.game._d.repository.PlayerRepository;
+import com.game._d.repository.RewardRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class JournalReplayService {
+    private final AnswerJournal answerJournal;
+    private final PlayerRepository playerRepository;
+    private final RewardRepository rewardRepository;
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayService.class);
+
+    @Transactional
+    public ReplayResult replay() {
+        AtomicLong events = new AtomicLong();
+        AtomicLong lost = new AtomicLong();
+        Map<Long, Integer> scores = new HashMap<>();
+        try {
+            answerJournal.flush();
+            if (!answerJournal.isComplete()) {
+                throw new IllegalStateException("Answer journal segments were removed by retention, replay refused");
+            }
+            answerJournal.replay(event -> {
+                events.incrementAndGet();
+                if (event.isGap()) {
+                    lost.addAndGet(event.quizId());
+                } else if (event.correct() && event.playerId() > 0 && event.scoreAfter() >= 0) {
+                    scores.merge(event.playerId(), event.scoreAfter(), Math::max);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read answer journal", e);
+        }
+        if (lost.get() > 0 || answerJournal.getDroppedCount() > 0) {
+            throw new IllegalStateException("Answer journal lost "
+                    + Math.max(lost.get(), answerJournal.getDroppedCount()) + " events, replay refused");
+        }
+
+        Map<String, List<Reward>> rewardsByCondition = rewardRepository.findAll().stream()
+                .filter(r -> r.getUnlockCondition() != null)
+                .collect(Collectors.groupingBy(Reward::getUnlockCondition));
+
+        int updated = 0;
+        int missing = 0;
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            Player player = playerRepository.findById(entry.getKey()).orElse(null);
+            if (player == null) {
+                missing++;
+                continue;
+            }
+            int score = entry.getValue();
+            player.setTotalScore(score);
+
+            // rewards granted by score are rebuilt, the others are left untouched
+            player.getUnlockedRewards().removeIf(r -> r.getUnlockCondition() != null
+                    && r.getUnlockCondition().startsWith(QuizService.PASS_QUIZZES_PREFIX));
+            for (int reached = 1; reached <= score; reached++) {
+                player.getUnlockedRewards().addAll(
+                        rewardsByCondition.getOrDefault(QuizService.PASS_QUIZZES_PREFIX + reached, List.of()));
+            }
+            playerRepository.save(player);
+            updated++;
+        }
+
+        logger.info("Journal replay: {} events, {} players rebuilt, {} unknown players", events.get(), updated, missing);
+        return new ReplayResult(events.get(), updated, missing);
+    }
+
+    public record ReplayResult(long events, int playersUpdated, int playersMissing) {}
+}
@@ -11,6 +11,7 @@ import com.game._d.repository.PhaseRepository;
 import com.game._d.repository.PlayerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -21,6 +22,7 @@ public class PhaseService {
     private final PhaseRepository phaseRepository;
     private final PlayerRepository playerRepository;
 
+    @Transactional(readOnly = true)
     public Phase unlockNextPhase(Long playerId) {
         Player player = playerRepository.findById(playerId)
                 .orElseThrow(() -> new RuntimeException("Player not found"));
@@ -0,0 +1,269 @@
+/*Statistiques des quiz en continu
+
+Chaque réponse corrigée incrémente des compteurs LongAdder (tentatives, bonnes réponses, choix par option)
+sans verrou sur le chemin de soumission. Périodiquement, chaque nœud ajoute à quiz_stats / quiz_option_stats
+ce qu'il a compté depuis son dernier envoi (attempts = attempts + ?), puis relit les totaux de tous les nœuds.
+Les statistiques servies = totaux stockés + ce que ce nœud n'a pas encore envoyé.*/
+package com.game._d.service;
+
+import com.game._d.entity.Quiz;
+import com.game._d.entity.QuizStats;
+import com.game._d.repository.QuizRepository;
+import com.game._d.repository.QuizStatsRepository;
+import com.game._d.repository.QuizStatsRepositoryCustom.QuizStatsIncrement;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class QuizAnalyticsService {
+    private final QuizRepository quizRepository;
+    private final QuizStatsRepository quizStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(QuizAnalyticsService.class);
+
+    // layout of the count arrays: attempts, correct, then one count per option index
+    private static final int ATTEMPTS = 0;
+    private static final int CORRECT = 1;
+    private static final int OPTIONS = 2;
+
+    private final ConcurrentMap<Long, QuizCounters> counters = new ConcurrentHashMap<>();
+
+    @Value("${game.analytics.snapshot-batch-size:100}")
+    private int snapshotBatchSize;
+
+    // pre-create the counters of every quiz so the grading path is a plain map lookup.
+    // Runs once the application is ready (no database access during startup).
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        for (Quiz quiz : quizRepository.findAll()) {
+            counters.computeIfAbsent(quiz.getId(), id -> new QuizCounters(quiz));
+        }
+        refreshStored();
+    }
+
+    // called from QuizService.submitAnswer: no lock, no allocation once the quiz is known
+    public void record(Quiz quiz, int chosenIndex, boolean correct) {
+        QuizCounters quizCounters = counters.get(quiz.getId());
+        if (quizCounters == null) {
+            quizCounters = counters.computeIfAbsent(quiz.getId(), id -> new QuizCounters(quiz));
+        }
+        quizCounters.record(chosenIndex, correct);
+    }
+
+    public List<QuizStatsView> getQuizStats() {
+        return counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getValue().toView(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    public List<GroupStatsView> getQuizPointStats() {
+        return aggregate(c -> c.quizPointId);
+    }
+
+    public List<GroupStatsView> getPhaseStats() {
+        return aggregate(c -> c.phaseId);
+    }
+
+    private List<GroupStatsView> aggregate(Function<QuizCounters, Long> key) {
+        Map<Long, long[]> totals = new TreeMap<>(); // id -> [quizzes, attempts, correct]
+        for (QuizCounters quizCounters : counters.values()) {
+            Long id = key.apply(quizCounters);
+            if (id == null) {
+                continue;
+            }
+            long[] quizTotals = quizCounters.totals();
+            long[] total = totals.computeIfAbsent(id, k -> new long[3]);
+            total[0]++;
+            total[1] += quizTotals[ATTEMPTS];
+            total[2] += quizTotals[CORRECT];
+        }
+        return totals.entrySet().stream()
+                .map(e -> new GroupStatsView(e.getKey(), (int) e.getValue()[0],
+                        e.getValue()[1], e.getValue()[2], rate(e.getValue()[2], e.getValue()[1])))
+                .collect(Collectors.toList());
+    }
+
+    // add what this node counted since its last snapshot, one transaction per batch,
+    // then re-read the totals written by every node
+    @Scheduled(fixedDelayString = "${game.analytics.snapshot-interval-ms:60000}",
+            initialDelayString = "${game.analytics.snapshot-interval-ms:60000}")
+    public synchronized void snapshot() {
+        List<Long> changed = new ArrayList<>();
+        counters.forEach((id, quizCounters) -> {
+            if (quizCounters.hasUnflushed()) {
+                changed.add(id);
+            }
+        });
+        Collections.sort(changed); // every node locks the rows in the same order
+
+        for (int from = 0; from < changed.size(); from += snapshotBatchSize) {
+            List<Long> batch = changed.subList(from, Math.min(from + snapshotBatchSize, changed.size()));
+            List<long[]> captured = new ArrayList<>(batch.size());
+            List<QuizStatsIncrement> increments = new ArrayList<>(batch.size());
+            for (Long quizId : batch) {
+                QuizCounters quizCounters = counters.get(quizId);
+                long[] local = quizCounters.local();
+                captured.add(local);
+                increments.add(quizCounters.increment(quizId, local));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> quizStatsRepository.addCounts(increments));
+                for (int i = 0; i < batch.size(); i++) {
+                    counters.get(batch.get(i)).flushed(captured.get(i));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to snapshot quiz statistics for {} quizzes", batch.size(), e);
+            }
+        }
+
+        try {
+            refreshStored();
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload the stored quiz statistics", e);
+        }
+    }
+
+    // read-write template: the totals are read from the primary, like the increments just written
+    private void refreshStored() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, QuizStats> rows = quizStatsRepository.findAll().stream()
+                    .collect(Collectors.toMap(QuizStats::getQuizId, s -> s));
+            Map<Long, long[]> options = quizStatsRepository.findAllOptionCounts();
+            counters.forEach((id, quizCounters) -> quizCounters.stored(rows.get(id), options.get(id)));
+        });
+    }
+
+    private static double rate(long correct, long attempts) {
+        return attempts == 0 ? 0.0 : (double) correct / attempts;
+    }
+
+    private static final class QuizCounters {
+        private final Long quizPointId;
+        private final Long phaseId;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder correct = new LongAdder();
+        private final LongAdder[] options;
+
+        // totals stored in the database and local counts already added to them;
+        // replaced as a whole by the snapshot thread, read by the views
+        private volatile Baseline baseline = new Baseline(new long[OPTIONS], new long[OPTIONS]);
+
+        QuizCounters(Quiz quiz) {
+            this.quizPointId = quiz.getQuizPoint() != null ? quiz.getQuizPoint().getId() : null;
+            this.phaseId = quiz.getQuizPoint() != null && quiz.getQuizPoint().getPhase() != null
+                    ? quiz.getQuizPoint().getPhase().getId() : null;
+
+            int optionCount = quiz.getOptions() != null ? quiz.getOptions().size() : 0;
+            this.options = new LongAdder[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                options[i] = new LongAdder();
+            }
+        }
+
+        void record(int chosenIndex, boolean isCorrect) {
+            attempts.increment();
+            if (isCorrect) {
+                correct.increment();
+            }
+            if (chosenIndex >= 0 && chosenIndex < options.length) {
+                options[chosenIndex].increment();
+            }
+        }
+
+        // counted on this node since startup; read in the reverse order of record()
+        // so a captured correct answer or option always has its attempt
+        long[] local() {
+            long[] counts = new long[OPTIONS + options.length];
+            for (int i = options.length - 1; i >= 0; i--) {
+                counts[OPTIONS + i] = options[i].sum();
+            }
+            counts[CORRECT] = correct.sum();
+            counts[ATTEMPTS] = attempts.sum();
+            return counts;
+        }
+
+        boolean hasUnflushed() {
+            return attempts.sum() != baseline.flushed[ATTEMPTS];
+        }
+
+        QuizStatsIncrement increment(Long quizId, long[] local) {
+            long[] delta = subtract(local, baseline.flushed);
+            return new QuizStatsIncrement(quizId, quizPointId, phaseId, delta[ATTEMPTS], delta[CORRECT],
+                    Arrays.copyOfRange(delta, OPTIONS, delta.length));
+        }
+
+        // the increment computed from local was committed
+        void flushed(long[] local) {
+            Baseline current = baseline;
+            baseline = new Baseline(add(current.stored, subtract(local, current.flushed)), local);
+        }
+
+        void stored(QuizStats row, long[] optionCounts) {
+            long[] stored = new long[OPTIONS + (optionCounts != null ? optionCounts.length : 0)];
+            if (row != null) {
+                stored[ATTEMPTS] = row.getAttempts() != null ? row.getAttempts() : 0;
+                stored[CORRECT] = row.getCorrectCount() != null ? row.getCorrectCount() : 0;
+            }
+            if (optionCounts != null) {
+                System.arraycopy(optionCounts, 0, stored, OPTIONS, optionCounts.length);
+            }
+            baseline = new Baseline(stored, baseline.flushed);
+        }
+
+        // stored totals of every node + what this node has not written yet
+        long[] totals() {
+            long[] local = local();
+            Baseline current = baseline;
+            return add(current.stored, subtract(local, current.flushed));
+        }
+
+        QuizStatsView toView(Long quizId) {
+            long[] totals = totals();
+            List<Long> optionCounts = new ArrayList<>(totals.length - OPTIONS);
+            for (int i = OPTIONS; i < totals.length; i++) {
+                optionCounts.add(totals[i]);
+            }
+            return new QuizStatsView(quizId, quizPointId, phaseId, totals[ATTEMPTS], totals[CORRECT],
+                    rate(totals[CORRECT], totals[ATTEMPTS]), optionCounts);
+        }
+    }
+
+    private record Baseline(long[] stored, long[] flushed) {}
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            sum[i] += b[i];
+        }
+        return sum;
+    }
+
+    private static long[] subtract(long[] a, long[] b) {
+        long[] difference = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            difference[i] -= b[i];
+        }
+        return difference;
+    }
+
+    public record QuizStatsView(Long quizId, Long quizPointId, Long phaseId, long attempts, long correct,
+                                double correctRate, List<Long> optionCounts) {}
+
+    public record GroupStatsView(Long id, int quizzes, long attempts, long correct, double correctRate) {}
+}
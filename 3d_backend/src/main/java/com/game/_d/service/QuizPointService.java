@@ -4,6 +4,7 @@ import com.game._d.entity.QuizPoint;
 import com.game._d.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,6 +15,7 @@ public class QuizPointService {
 
 
     // find the correct quiz with correct points and correct phase
+    @Transactional(readOnly = true)
     public List<QuizPoint> getQuizesPointsForPhase(Long phaseId) {
         return quizpointRepository.findByPhaseId(phaseId);
     }
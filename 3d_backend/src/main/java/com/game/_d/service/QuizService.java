@@ -4,24 +4,33 @@
 Calcule les scores et débloque les récompenses*/
 package com.game._d.service;
 
+import com.game._d.config.datasource.ReadAfterWriteTracker;
 import com.game._d.entity.Player;
 import com.game._d.entity.Quiz;
 import com.game._d.entity.Reward;
+import com.game._d.journal.AnswerJournal;
 import com.game._d.repository.PlayerRepository;
 import com.game._d.repository.QuizRepository;
 import com.game._d.repository.RewardRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class QuizService {
+    static final String PASS_QUIZZES_PREFIX = "PASS_QUIZZES:";
+
     private final QuizRepository quizRepository;
     private final PlayerRepository playerRepository;
     private final RewardRepository rewardRepository;
+    private final AnswerJournal answerJournal;
+    private final QuizAnalyticsService quizAnalyticsService;
+    private final ReadAfterWriteTracker readAfterWriteTracker;
 
     @Transactional
     public boolean submitAnswer(Long playerId, Long quizId, Integer chosenIndex) {
@@ -29,6 +38,7 @@ public class QuizService {
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
 
         boolean isCorrect = chosenIndex.equals(quiz.getCorrectIndex());
+        int scoreAfter = -1;
 
         if(isCorrect) {
             Player player = playerRepository.findById(playerId)
@@ -36,17 +46,38 @@ public class QuizService {
             player.setTotalScore(player.getTotalScore() + 1);
             playerRepository.save(player);
             checkForRewards(playerId);
+            readAfterWriteTracker.markWrite(playerId);
+            scoreAfter = player.getTotalScore();
         }
 
+        int journaledScore = scoreAfter;
+        afterCommit(() -> {
+            quizAnalyticsService.record(quiz, chosenIndex, isCorrect);
+            answerJournal.record(playerId, quizId, chosenIndex, isCorrect, journaledScore);
+        });
         return isCorrect;
     }
 
+    // rolled back submissions must not reach the statistics nor the journal
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
    // find rewards that match the condition "PASS_QUIZZES:score" 
    private void checkForRewards(Long playerId) {
        Player player = playerRepository.findById(playerId)
                .orElseThrow(() -> new RuntimeException("Player not found"));
 
-       String condition = "PASS_QUIZZES:" + player.getTotalScore();
+       String condition = PASS_QUIZZES_PREFIX + player.getTotalScore();
        List<Reward> rewards = rewardRepository.findByUnlockCondition(condition);
 
        if(!rewards.isEmpty()) {
@@ -3,7 +3,7 @@ INSERT INTO phase (name, unlock_threshold, scene_glb_path) VALUES
 ('Caverne des Glaces', 5, 'scenes/ice_cave.glb'),
 ('Volcan Interdit', 10, 'scenes/volcano.glb');
 
-INSERT INTO quiz_point (position_x, position_y, position_z, phase_id) VALUES
+INSERT INTO quiz_point (positionx, positiony, positionz, phase_id) VALUES
 (10.5, 0.0, 15.3, 1),
 (-5.2, 1.0, 20.1, 1);
 
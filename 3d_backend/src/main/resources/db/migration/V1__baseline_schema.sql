@@ -0,0 +1,70 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS phase (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255),
+    description      VARCHAR(255),
+    unlock_threshold INTEGER,
+    scene_glb_path   VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS quiz_point (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    -- positionX maps to positionx: no underscore is added before a trailing capital
+    positionx      REAL,
+    positiony      REAL,
+    positionz      REAL,
+    trigger_radius REAL,
+    phase_id       BIGINT,
+    CONSTRAINT fk_quiz_point_phase FOREIGN KEY (phase_id) REFERENCES phase (id)
+);
+
+CREATE TABLE IF NOT EXISTS quiz (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    question      VARCHAR(255),
+    options       TEXT,
+    correct_index INTEGER,
+    quiz_point_id BIGINT,
+    CONSTRAINT fk_quiz_quiz_point FOREIGN KEY (quiz_point_id) REFERENCES quiz_point (id)
+);
+
+CREATE TABLE IF NOT EXISTS reward (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255),
+    type             VARCHAR(255),
+    unlock_condition VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS player (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username           VARCHAR(255),
+    current_phase      INTEGER,
+    total_score        INTEGER,
+    equipped_skin_path VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS player_rewards (
+    player_id BIGINT NOT NULL,
+    reward_id BIGINT NOT NULL,
+    PRIMARY KEY (player_id, reward_id),
+    CONSTRAINT fk_player_rewards_player FOREIGN KEY (player_id) REFERENCES player (id),
+    CONSTRAINT fk_player_rewards_reward FOREIGN KEY (reward_id) REFERENCES reward (id)
+);
+
+CREATE TABLE IF NOT EXISTS skin (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255),
+    model_path       VARCHAR(255),
+    thumbnail_path   VARCHAR(255),
+    unlock_condition VARCHAR(255),
+    is_default       BOOLEAN NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS badge (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255),
+    description      VARCHAR(255),
+    image_path       VARCHAR(255),
+    unlock_condition VARCHAR(255)
+);
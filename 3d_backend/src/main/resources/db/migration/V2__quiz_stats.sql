@@ -0,0 +1,11 @@
+-- Snapshots written by QuizAnalyticsService
+
+CREATE TABLE IF NOT EXISTS quiz_stats (
+    quiz_id       BIGINT NOT NULL PRIMARY KEY,
+    quiz_point_id BIGINT,
+    phase_id      BIGINT,
+    attempts      BIGINT,
+    correct_count BIGINT,
+    option_counts TEXT,
+    updated_at    TIMESTAMP(6)
+);
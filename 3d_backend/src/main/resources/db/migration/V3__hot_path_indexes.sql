@@ -0,0 +1,16 @@
+-- Indexes for the columns filtered by the repository queries
+
+-- QuizRepository.findByQuizPointId
+CREATE INDEX IF NOT EXISTS idx_quiz_quiz_point_id ON quiz (quiz_point_id);
+
+-- QuizPointRepository.findByPhaseId
+CREATE INDEX IF NOT EXISTS idx_quiz_point_phase_id ON quiz_point (phase_id);
+
+-- RewardRepository.findByUnlockCondition
+CREATE INDEX IF NOT EXISTS idx_reward_unlock_condition ON reward (unlock_condition);
+
+-- PhaseRepository.findByUnlockThresholdLessThanEqual
+CREATE INDEX IF NOT EXISTS idx_phase_unlock_threshold ON phase (unlock_threshold);
+
+-- Player.unlockedRewards (eager join on every player load) needs no index of its own:
+-- player_id is the leading column of the player_rewards primary key.
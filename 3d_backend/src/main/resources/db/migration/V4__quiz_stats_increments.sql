@@ -0,0 +1,25 @@
+-- quiz_stats is written as increments by every node (attempts = attempts + ?), so the
+-- per-option counts move from a comma-separated TEXT column to one row per option.
+
+CREATE TABLE IF NOT EXISTS quiz_option_stats (
+    quiz_id      BIGINT NOT NULL,
+    option_index INTEGER NOT NULL,
+    answers      BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (quiz_id, option_index)
+);
+
+INSERT INTO quiz_option_stats (quiz_id, option_index, answers)
+SELECT s.quiz_id, o.ordinality - 1, o.count::BIGINT
+FROM quiz_stats s,
+     unnest(string_to_array(s.option_counts, ',')) WITH ORDINALITY AS o(count, ordinality)
+WHERE s.option_counts IS NOT NULL AND s.option_counts <> ''
+ON CONFLICT (quiz_id, option_index) DO NOTHING;
+
+ALTER TABLE quiz_stats DROP COLUMN option_counts;
+
+UPDATE quiz_stats SET attempts = 0 WHERE attempts IS NULL;
+UPDATE quiz_stats SET correct_count = 0 WHERE correct_count IS NULL;
+ALTER TABLE quiz_stats ALTER COLUMN attempts SET DEFAULT 0;
+ALTER TABLE quiz_stats ALTER COLUMN attempts SET NOT NULL;
+ALTER TABLE quiz_stats ALTER COLUMN correct_count SET DEFAULT 0;
+ALTER TABLE quiz_stats ALTER COLUMN correct_count SET NOT NULL;
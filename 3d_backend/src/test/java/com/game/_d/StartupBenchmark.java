@@ -0,0 +1,86 @@
+package com.game._d;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*Mesure le temps jusqu'à la première requête réussie (GET /api/skins) pour chaque mode de démarrage
+
+Depuis 3d_backend, base de données démarrée :
+  mvn -B package -DskipTests              -> mode default
+  mvn -B -Pfast-startup package -DskipTests -> mode aot-cds
+  mvn -B -Pnative native:compile -DskipTests -> mode native (GraalVM)
+  java src/test/java/com/game/_d/StartupBenchmark.java [runs]
+
+Les modes dont les artefacts sont absents sont ignorés.*/
+public class StartupBenchmark {
+    private static final String JAR = "3d-0.0.1-SNAPSHOT.jar";
+    private static final int PORT = 18080;
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String port = "--server.port=" + PORT;
+
+        benchmark("default", runs, new File("target/" + JAR),
+                List.of(java, "-jar", "target/" + JAR, port));
+        benchmark("aot-cds", runs, new File("target/app/app.jsa"),
+                List.of(java, "-XX:SharedArchiveFile=target/app/app.jsa", "-Dspring.aot.enabled=true",
+                        "-jar", "target/app/" + JAR, "--spring.profiles.active=fast", port));
+
+        File nativeImage = new File(System.getProperty("os.name").startsWith("Windows") ? "target/3d.exe" : "target/3d");
+        benchmark("native", runs, nativeImage,
+                List.of(nativeImage.getPath(), "--spring.profiles.active=fast", port));
+    }
+
+    private static void benchmark(String mode, int runs, File artifact, List<String> command) throws Exception {
+        if (!artifact.exists()) {
+            System.out.printf("%-8s skipped (%s not found)%n", mode, artifact.getPath());
+            return;
+        }
+        List<Long> timings = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            timings.add(timeToFirstRequest(command));
+        }
+        Collections.sort(timings);
+        System.out.printf("%-8s min %5d ms   median %5d ms   max %5d ms   (%d runs)%n",
+                mode, timings.get(0), timings.get(timings.size() / 2), timings.get(timings.size() - 1), runs);
+    }
+
+    private static long timeToFirstRequest(List<String> command) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/api/skins")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (java.io.IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful request after " + TIMEOUT.toSeconds() + " s");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.game._d.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConfigTests {
+    // the conversion service splits replica-urls like the application does
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(DataSourceConfig.class)
+            .withBean(ReadAfterWriteTracker.class, () -> new ReadAfterWriteTracker(5000))
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:primary",
+                    "spring.datasource.username=sa",
+                    "game.datasource.replica-urls=jdbc:h2:mem:replica0,jdbc:h2:mem:replica1",
+                    "game.datasource.read.lag-query=");
+
+    @Test
+    void hikariPropertiesAreBoundPerPool() {
+        contextRunner.withPropertyValues(
+                "spring.datasource.hikari.maximum-pool-size=42",
+                "spring.datasource.hikari.connection-timeout=1234",
+                "game.datasource.replica.hikari.maximum-pool-size=7",
+                "game.datasource.replica.hikari.minimum-idle=2"
+        ).run(context -> {
+            Map<Object, DataSource> pools = context.getBean(ReadWriteRoutingDataSource.class).getResolvedDataSources();
+
+            HikariDataSource primary = (HikariDataSource) pools.get(ReadWriteRoutingDataSource.PRIMARY);
+            assertEquals("jdbc:h2:mem:primary", primary.getJdbcUrl());
+            assertEquals("sa", primary.getUsername());
+            assertEquals(42, primary.getMaximumPoolSize());
+            assertEquals(1234, primary.getConnectionTimeout());
+            assertFalse(primary.isReadOnly());
+
+            for (String name : new String[]{"replica-0", "replica-1"}) {
+                HikariDataSource replica = (HikariDataSource) pools.get(name);
+                assertEquals(name, replica.getPoolName());
+                assertEquals(7, replica.getMaximumPoolSize());
+                assertEquals(2, replica.getMinimumIdle());
+                assertTrue(replica.isReadOnly());
+            }
+            assertEquals("jdbc:h2:mem:replica1", ((HikariDataSource) pools.get("replica-1")).getJdbcUrl());
+        });
+    }
+
+    @Test
+    void applicationDataSourceIsTheLazyRoutingProxy() {
+        contextRunner.run(context -> {
+            assertEquals(1, context.getBeansOfType(DataSource.class).values().stream()
+                    .filter(d -> !(d instanceof ReadWriteRoutingDataSource)).count());
+            assertEquals(10, ((HikariDataSource) context.getBean(ReadWriteRoutingDataSource.class)
+                    .getResolvedDataSources().get(ReadWriteRoutingDataSource.PRIMARY)).getMaximumPoolSize());
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.game._d.config.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two embedded H2 databases stand in for the primary and a replica
+class ReadWriteRoutingDataSourceTests {
+    private static final String LAG_QUERY = "SELECT lag_ms FROM node";
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadAfterWriteTracker tracker;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+        tracker = new ReadAfterWriteTracker(60000);
+        routing = new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), tracker, 1000, LAG_QUERY);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.clearCurrentPlayer();
+        new JdbcTemplate(primary).execute("DROP TABLE node");
+        new JdbcTemplate(replica).execute("DROP TABLE node");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void writeTransactionsAndNonTransactionalCallsGoToPrimary() {
+        assertEquals("primary", writeTransaction.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void playerReadsArePinnedToPrimaryAfterTheirOwnWrite() {
+        writeTransaction.executeWithoutResult(status -> tracker.markWrite(1L));
+
+        tracker.setCurrentPlayer(1L);
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+
+        tracker.setCurrentPlayer(2L);
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() {
+        new JdbcTemplate(replica).update("UPDATE node SET lag_ms = 5000");
+        routing.checkReplicaLag();
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+
+        new JdbcTemplate(replica).update("UPDATE node SET lag_ms = 0");
+        routing.checkReplicaLag();
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20), lag_ms BIGINT)");
+        jdbcTemplate.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
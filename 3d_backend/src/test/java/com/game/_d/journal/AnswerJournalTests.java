@@ -0,0 +1,198 @@
+package com.game._d.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerJournalTests {
+    private static final int RECORD = AnswerEvent.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private final List<AnswerJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AnswerJournal journal : opened) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void eventsRoundTrip() throws Exception {
+        AnswerJournal journal = started(DataSize.ofMegabytes(1), 0);
+        journal.record(7L, 3L, 2, true, 12);
+        journal.record(8L, 4L, 0, false, -1);
+        journal.record(null, null, null, false, -1);
+        journal.flush();
+
+        List<AnswerEvent> events = read(journal);
+        assertEquals(3, events.size());
+        assertEquals(AnswerEvent.answer(7, 3, 2, true, 12, events.get(0).timestamp()), events.get(0));
+        assertEquals(AnswerEvent.answer(8, 4, 0, false, -1, events.get(1).timestamp()), events.get(1));
+        assertEquals(AnswerEvent.answer(0, 0, -1, false, -1, events.get(2).timestamp()), events.get(2));
+    }
+
+    @Test
+    void corruptedTailIsOverwrittenOnReopen() throws Exception {
+        AnswerJournal journal = started(DataSize.ofMegabytes(1), 0);
+        for (long quiz = 1; quiz <= 3; quiz++) {
+            journal.record(1L, quiz, 0, true, (int) quiz);
+        }
+        journal.flush();
+        journal.stop();
+        opened.remove(journal);
+
+        // torn write: the third record is damaged
+        try (FileChannel channel = FileChannel.open(directory.resolve(segmentName(1)), WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42, 42, 42}), 2L * RECORD + 10);
+        }
+
+        AnswerJournal reopened = started(DataSize.ofMegabytes(1), 0);
+        assertEquals(List.of(1L, 2L), quizIds(read(reopened)));
+
+        reopened.record(1L, 9L, 0, true, 3);
+        reopened.flush();
+        assertEquals(List.of(1L, 2L, 9L), quizIds(read(reopened)));
+    }
+
+    @Test
+    void truncatedSegmentIsRecovered() throws Exception {
+        AnswerJournal journal = started(DataSize.ofMegabytes(1), 0);
+        journal.record(1L, 1L, 0, true, 1);
+        journal.record(1L, 2L, 0, true, 2);
+        journal.flush();
+        journal.stop();
+        opened.remove(journal);
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(segmentName(1)), WRITE)) {
+            channel.truncate(RECORD + RECORD / 2);
+        }
+
+        AnswerJournal reopened = started(DataSize.ofMegabytes(1), 0);
+        reopened.record(1L, 3L, 0, true, 2);
+        reopened.flush();
+        assertEquals(List.of(1L, 3L), quizIds(read(reopened)));
+    }
+
+    @Test
+    void segmentsRollOverWhenFull() throws Exception {
+        AnswerJournal journal = started(DataSize.ofBytes(4 * RECORD), 0);
+        for (long quiz = 1; quiz <= 10; quiz++) {
+            journal.record(1L, quiz, 0, false, -1);
+        }
+        journal.flush();
+
+        assertEquals(List.of(1L, 2L, 3L), sequences());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), quizIds(read(journal)));
+        assertTrue(journal.isComplete());
+    }
+
+    @Test
+    void retentionKeepsNewestSegments() throws Exception {
+        AnswerJournal journal = started(DataSize.ofBytes(4 * RECORD), 2);
+        for (long quiz = 1; quiz <= 20; quiz++) {
+            journal.record(1L, quiz, 0, false, -1);
+        }
+        journal.flush();
+
+        assertEquals(List.of(4L, 5L), sequences());
+        assertEquals(List.of(13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), quizIds(read(journal)));
+        assertFalse(journal.isComplete());
+    }
+
+    @Test
+    void droppedEventsLeaveGapRecord() throws Exception {
+        AnswerJournal journal = new AnswerJournal(true, directory.toString(), DataSize.ofMegabytes(1), 0, 1, 16);
+        opened.add(journal);
+        journal.open(); // no writer thread: the queue (capacity 1) stays full
+        journal.record(1L, 1L, 0, true, 1);
+        journal.record(1L, 2L, 0, true, 2);
+        journal.record(1L, 3L, 0, true, 3);
+        journal.flush();
+
+        List<AnswerEvent> events = read(journal);
+        assertEquals(2, journal.getDroppedCount());
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).isGap());
+        assertEquals(2, events.get(0).quizId());
+        assertEquals(1L, events.get(1).quizId());
+    }
+
+    @Test
+    void failedWriteLeavesGapRecord() throws Exception {
+        AnswerJournal journal = new AnswerJournal(true, directory.toString(), DataSize.ofBytes(4 * RECORD), 0, 16, 16);
+        opened.add(journal);
+        journal.open();
+        // the next segment cannot be created: rolling over fails like a full disk would
+        Path blocker = Files.createDirectory(directory.resolve(segmentName(2)));
+
+        for (long quiz = 1; quiz <= 6; quiz++) {
+            journal.record(1L, quiz, 0, true, (int) quiz);
+        }
+        assertThrows(IOException.class, journal::flush);
+        assertEquals(2, journal.getDroppedCount());
+
+        Files.delete(blocker);
+        journal.record(1L, 7L, 0, true, 5);
+        journal.flush();
+
+        List<AnswerEvent> events = read(journal);
+        assertEquals(List.of(1L, 2L, 3L, 4L), quizIds(events.subList(0, 4)));
+        assertTrue(events.get(4).isGap());
+        assertEquals(2, events.get(4).quizId());
+        assertEquals(7L, events.get(5).quizId());
+        assertEquals(6, events.size());
+    }
+
+    @Test
+    void secondOpenOfSameDirectoryIsRefused() throws Exception {
+        started(DataSize.ofMegabytes(1), 0);
+        AnswerJournal second = new AnswerJournal(true, directory.toString(), DataSize.ofMegabytes(1), 0, 16, 16);
+        assertThrows(IllegalStateException.class, second::start);
+    }
+
+    private AnswerJournal started(DataSize segmentSize, int maxSegments) throws IOException {
+        AnswerJournal journal = new AnswerJournal(true, directory.toString(), segmentSize, maxSegments, 1024, 16);
+        journal.start();
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<Long> sequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        for (Path segment : JournalSegment.list(directory)) {
+            sequences.add(JournalSegment.sequenceOf(segment));
+        }
+        return sequences;
+    }
+
+    private static List<AnswerEvent> read(AnswerJournal journal) throws IOException {
+        List<AnswerEvent> events = new ArrayList<>();
+        journal.replay(events::add);
+        return events;
+    }
+
+    private static List<Long> quizIds(List<AnswerEvent> events) {
+        List<Long> ids = new ArrayList<>();
+        events.forEach(e -> ids.add(e.quizId()));
+        return ids;
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("answers-%020d.journal", sequence);
+    }
+}
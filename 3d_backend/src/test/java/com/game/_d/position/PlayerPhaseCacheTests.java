@@ -0,0 +1,50 @@
+package com.game._d.position;
+
+import com.game._d.repository.PlayerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class PlayerPhaseCacheTests {
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+
+    @Test
+    void phaseIsReadOncePerTtl() throws InterruptedException {
+        when(playerRepository.findCurrentPhaseById(1L)).thenReturn(Optional.of(3), Optional.of(4));
+        PlayerPhaseCache cache = new PlayerPhaseCache(playerRepository, 50, 10);
+
+        assertEquals(3, cache.phaseOf(1L));
+        assertEquals(3, cache.phaseOf(1L));
+        verify(playerRepository, times(1)).findCurrentPhaseById(1L);
+
+        Thread.sleep(60);
+        assertEquals(4, cache.phaseOf(1L));
+    }
+
+    @Test
+    void unknownPlayersAreRejectedWithoutRequeryingTheDatabase() {
+        when(playerRepository.findCurrentPhaseById(anyLong())).thenReturn(Optional.empty());
+        PlayerPhaseCache cache = new PlayerPhaseCache(playerRepository, 60000, 10);
+
+        assertEquals(PlayerPhaseCache.UNKNOWN, cache.phaseOf(99L));
+        assertEquals(PlayerPhaseCache.UNKNOWN, cache.phaseOf(99L));
+        verify(playerRepository, times(1)).findCurrentPhaseById(99L);
+    }
+
+    @Test
+    void unknownPlayerCacheIsBounded() {
+        when(playerRepository.findCurrentPhaseById(anyLong())).thenReturn(Optional.empty());
+        PlayerPhaseCache cache = new PlayerPhaseCache(playerRepository, 60000, 10);
+
+        for (long player = 1; player <= 11; player++) {
+            cache.phaseOf(player);
+        }
+        // the cache was cleared when full: player 1 is looked up again
+        cache.phaseOf(1L);
+        verify(playerRepository, times(2)).findCurrentPhaseById(1L);
+    }
+}
@@ -0,0 +1,146 @@
+package com.game._d.position;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerPositionBufferTests {
+    private static final String SOURCE = "10.0.0.1";
+
+    @Test
+    void heartbeatsBeforeDrainAreCoalesced() {
+        PlayerPositionBuffer buffer = new PlayerPositionBuffer(16, 60000, 64);
+        buffer.offer(1L, 3, SOURCE, 1, 1, 1);
+        buffer.offer(1L, 3, SOURCE, 2, 2, 2);
+        buffer.offer(1L, 3, SOURCE, 3, 4, 5);
+
+        List<float[]> visited = new ArrayList<>();
+        assertEquals(1, buffer.drain((slot, playerId, phaseId, x, y, z) -> {
+            assertEquals(1L, playerId);
+            assertEquals(3, phaseId);
+            visited.add(new float[]{x, y, z});
+        }, 100));
+        assertArrayEquals(new float[]{3, 4, 5}, visited.get(0));
+
+        assertEquals(0, buffer.drain((slot, playerId, phaseId, x, y, z) -> fail("nothing new"), 100));
+    }
+
+    @Test
+    void fullBufferRejectsNewPlayersOnly() {
+        PlayerPositionBuffer buffer = new PlayerPositionBuffer(4, 60000, 64);
+        for (long player = 1; player <= 4; player++) {
+            assertTrue(buffer.offer(player, 1, SOURCE, 0, 0, 0));
+        }
+
+        assertFalse(buffer.offer(5L, 1, SOURCE, 0, 0, 0));
+        assertEquals(-1, buffer.slotOf(5L));
+        assertTrue(buffer.offer(2L, 1, SOURCE, 1, 1, 1));
+    }
+
+    @Test
+    void oneSourceCannotClaimMoreThanItsShare() throws InterruptedException {
+        PlayerPositionBuffer buffer = new PlayerPositionBuffer(16, 1, 2);
+        assertTrue(buffer.offer(1L, 1, SOURCE, 0, 0, 0));
+        assertTrue(buffer.offer(2L, 1, SOURCE, 0, 0, 0));
+        assertFalse(buffer.offer(3L, 1, SOURCE, 0, 0, 0));
+        assertTrue(buffer.offer(3L, 1, "10.0.0.2", 0, 0, 0));
+
+        // evicted players give their claim back
+        Thread.sleep(5);
+        buffer.evictIdlePlayers();
+        assertTrue(buffer.offer(4L, 1, SOURCE, 0, 0, 0));
+        assertTrue(buffer.offer(5L, 1, SOURCE, 0, 0, 0));
+        assertFalse(buffer.offer(6L, 1, SOURCE, 0, 0, 0));
+    }
+
+    @Test
+    void evictedSlotsAreReusedWithoutTheOldOwner() throws InterruptedException {
+        PlayerPositionBuffer buffer = new PlayerPositionBuffer(2, 1, 64);
+        buffer.offer(1L, 1, SOURCE, 0, 0, 0);
+        buffer.offer(2L, 1, SOURCE, 0, 0, 0);
+        int oldSlot = buffer.slotOf(1L);
+
+        Thread.sleep(5);
+        buffer.evictIdlePlayers();
+        assertEquals(-1, buffer.slotOf(1L));
+
+        assertTrue(buffer.offer(3L, 1, SOURCE, 7, 7, 7));
+        assertTrue(buffer.offer(4L, 1, SOURCE, 8, 8, 8));
+        assertFalse(buffer.offer(5L, 1, SOURCE, 0, 0, 0));
+
+        List<Long> owners = new ArrayList<>();
+        buffer.drain((slot, playerId, phaseId, x, y, z) -> owners.add(playerId), 100);
+        assertFalse(owners.contains(1L));
+        assertFalse(owners.contains(2L));
+        assertTrue(owners.containsAll(List.of(3L, 4L)));
+        assertTrue(buffer.slotOf(3L) == oldSlot || buffer.slotOf(4L) == oldSlot);
+    }
+
+    // many request threads, one consumer: no torn position, no lost final update
+    @Test
+    void concurrentProducersWithSingleConsumer() throws Exception {
+        int producers = 4;
+        int playersPerProducer = 200;
+        int updates = 2_000;
+        PlayerPositionBuffer buffer = new PlayerPositionBuffer(1024, 60000, Integer.MAX_VALUE);
+
+        ConcurrentHashMap<Long, Float> latest = new ConcurrentHashMap<>();
+        AtomicReference<String> failure = new AtomicReference<>();
+        PlayerPositionBuffer.PositionVisitor visitor = (slot, playerId, phaseId, x, y, z) -> {
+            if (x != y || y != z || phaseId != playerId % 7) {
+                failure.compareAndSet(null, "torn read for player " + playerId + ": " + x + "," + y + "," + z);
+            }
+            Float previous = latest.put(playerId, x);
+            if (previous != null && previous > x) {
+                failure.compareAndSet(null, "player " + playerId + " went back from " + previous + " to " + x);
+            }
+        };
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (producing.get()) {
+                buffer.drain(visitor, 256);
+            }
+        });
+        consumer.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long firstPlayer = 1 + (long) p * playersPerProducer;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int u = 1; u <= updates; u++) {
+                    for (long player = firstPlayer; player < firstPlayer + playersPerProducer; player++) {
+                        assertTrue(buffer.offer(player, player % 7, "source-" + firstPlayer, u, u, u));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        producing.set(false);
+        consumer.join();
+        buffer.drain(visitor, Integer.MAX_VALUE);
+
+        assertNull(failure.get());
+        assertEquals(producers * playersPerProducer, latest.size());
+        latest.forEach((player, x) -> assertEquals((float) updates, x, "player " + player));
+    }
+}
@@ -0,0 +1,119 @@
+package com.game._d.position;
+
+import com.game._d.entity.Phase;
+import com.game._d.entity.QuizPoint;
+import com.game._d.repository.QuizPointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// drains the buffer on the test thread instead of starting the consumer thread
+class QuizPointTriggerDetectorTests {
+    private static final String SOURCE = "10.0.0.1";
+
+    private final QuizPointRepository quizPointRepository = mock(QuizPointRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private PlayerPositionBuffer buffer;
+    private QuizPointTriggerDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        // phase 1: quiz point 10 at the origin, quiz point 11 at x=10 ; phase 2: quiz point 20 at the origin
+        when(quizPointRepository.findAll()).thenReturn(List.of(
+                quizPoint(10L, 1L, 0, 2), quizPoint(11L, 1L, 10, 1), quizPoint(20L, 2L, 0, 1)));
+        buffer = new PlayerPositionBuffer(2, 1, 64);
+        detector = new QuizPointTriggerDetector(buffer, quizPointRepository, eventPublisher, 100);
+        detector.loadTriggers();
+    }
+
+    @Test
+    void enteringASpherePublishesOneEvent() {
+        move(1L, 1, 5, 0, 0);
+        move(1L, 1, 1, 0, 0);
+        move(1L, 1, 0.5f, 0, 0);
+        move(1L, 1, 0, 1, 0);
+
+        ArgumentCaptor<QuizPointEnteredEvent> event = ArgumentCaptor.forClass(QuizPointEnteredEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().playerId());
+        assertEquals(10L, event.getValue().quizPointId());
+        assertEquals(1L, event.getValue().phaseId());
+        assertTrue(detector.isInside(1L, 10L));
+
+        // out and back in again: a second entry
+        move(1L, 1, 5, 0, 0);
+        assertFalse(detector.isInside(1L, 10L));
+        move(1L, 1, 0, 0, 0);
+        verify(eventPublisher, times(2)).publishEvent(any(QuizPointEnteredEvent.class));
+    }
+
+    @Test
+    void onlyTheSpheresOfThePlayersPhaseTrigger() {
+        move(1L, 2, 0, 0, 0);
+
+        assertFalse(detector.isInside(1L, 10L));
+        assertTrue(detector.isInside(1L, 20L));
+        move(1L, 3, 10, 0, 0);
+        assertFalse(detector.isInside(1L, 11L));
+    }
+
+    @Test
+    void reusedSlotDoesNotReportTheEvictedPlayer() throws InterruptedException {
+        move(1L, 1, 0, 0, 0);
+        int slot = buffer.slotOf(1L);
+        assertTrue(detector.isInside(1L, 10L));
+
+        Thread.sleep(5);
+        buffer.evictIdlePlayers();
+        assertFalse(detector.isInside(1L, 10L));
+
+        // player 2 gets the old slot, reported outside any sphere
+        buffer.offer(2L, 1, SOURCE, 5, 0, 0);
+        assertEquals(slot, buffer.slotOf(2L));
+        assertFalse(detector.isInside(2L, 10L));
+        buffer.drain(detector, 100);
+        assertFalse(detector.isInside(2L, 10L));
+        assertFalse(detector.isInside(1L, 10L));
+
+        // player 1 comes back in another slot: inside again only once its position is processed
+        buffer.offer(1L, 1, SOURCE, 0, 0, 0);
+        assertNotEquals(slot, buffer.slotOf(1L));
+        assertFalse(detector.isInside(1L, 10L));
+        buffer.drain(detector, 100);
+        assertTrue(detector.isInside(1L, 10L));
+    }
+
+    @Test
+    void failedRefreshKeepsThePreviousTriggers() {
+        when(quizPointRepository.findAll()).thenThrow(new RuntimeException("database down"));
+        detector.refreshTriggers();
+
+        move(1L, 1, 0, 0, 0);
+        assertTrue(detector.isInside(1L, 10L));
+    }
+
+    private void move(Long playerId, long phaseId, float x, float y, float z) {
+        assertTrue(buffer.offer(playerId, phaseId, SOURCE, x, y, z));
+        buffer.drain(detector, 100);
+    }
+
+    private static QuizPoint quizPoint(Long id, Long phaseId, float x, float radius) {
+        Phase phase = new Phase();
+        phase.setId(phaseId);
+        QuizPoint point = new QuizPoint();
+        point.setId(id);
+        point.setPhase(phase);
+        point.setPositionX(x);
+        point.setPositionY(0f);
+        point.setPositionZ(0f);
+        point.setTriggerRadius(radius);
+        return point;
+    }
+}
@@ -0,0 +1,169 @@
+package com.game._d.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the repositories on an embedded PostgreSQL migrated by Flyway and filled with synthetic data,
+// captures the SQL Hibernate generates for each query and checks that its plan uses the expected index.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the seed data must outlive each test
+class QueryPlanTests {
+    private static final int PHASES = 2_000;
+    private static final int QUIZ_POINTS = 20_000;
+    private static final int QUIZZES = 100_000;
+    private static final int REWARDS = 10_000;
+    private static final int PLAYERS = 10_000;
+
+    private static final EmbeddedPostgres postgres = start();
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private QuizPointRepository quizPointRepository;
+    @Autowired
+    private RewardRepository rewardRepository;
+    @Autowired
+    private PhaseRepository phaseRepository;
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @TestConfiguration
+    static class SqlCapture {
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    (StatementInspector) sql -> {
+                        statements.add(sql);
+                        return sql;
+                    });
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.execute("INSERT INTO phase (id, name, unlock_threshold) "
+                + "SELECT x, 'Phase ' || x, x FROM generate_series(1, " + PHASES + ") x");
+        jdbcTemplate.execute("INSERT INTO quiz_point (id, positionx, positiony, positionz, trigger_radius, phase_id) "
+                + "SELECT x, x, 0, x, 1, x % " + PHASES + " + 1 FROM generate_series(1, " + QUIZ_POINTS + ") x");
+        jdbcTemplate.execute("INSERT INTO quiz (id, question, options, correct_index, quiz_point_id) "
+                + "SELECT x, 'Question ' || x, 'a,b,c,d', x % 4, x % " + QUIZ_POINTS + " + 1 "
+                + "FROM generate_series(1, " + QUIZZES + ") x");
+        jdbcTemplate.execute("INSERT INTO reward (id, name, type, unlock_condition) "
+                + "SELECT x, 'Reward ' || x, 'BADGE', 'PASS_QUIZZES:' || x FROM generate_series(1, " + REWARDS + ") x");
+        jdbcTemplate.execute("INSERT INTO player (id, username, current_phase, total_score) "
+                + "SELECT x, 'player' || x, 1, x FROM generate_series(1, " + PLAYERS + ") x");
+        // 5 distinct rewards per player
+        jdbcTemplate.execute("INSERT INTO player_rewards (player_id, reward_id) "
+                + "SELECT p, (p * 7 + r) % " + REWARDS + " + 1 "
+                + "FROM generate_series(1, " + PLAYERS + ") p, generate_series(1, 5) r");
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void findByQuizPointIdUsesIndex() {
+        assertUsesIndex("idx_quiz_quiz_point_id", () -> quizRepository.findByQuizPointId(42L), "42");
+    }
+
+    @Test
+    void findByPhaseIdUsesIndex() {
+        assertUsesIndex("idx_quiz_point_phase_id", () -> quizPointRepository.findByPhaseId(42L), "42");
+    }
+
+    @Test
+    void findByUnlockConditionUsesIndex() {
+        assertUsesIndex("idx_reward_unlock_condition",
+                () -> rewardRepository.findByUnlockCondition("PASS_QUIZZES:42"), "'PASS_QUIZZES:42'");
+    }
+
+    @Test
+    void findByUnlockThresholdLessThanEqualUsesIndex() {
+        assertUsesIndex("idx_phase_unlock_threshold", () -> phaseRepository.findByUnlockThresholdLessThanEqual(10), "10");
+    }
+
+    // Player.unlockedRewards is fetched with the player: the join is served by the player_rewards primary key
+    @Test
+    void unlockedRewardsJoinUsesPrimaryKey() {
+        assertUsesIndex("player_rewards_pkey", () -> playerRepository.findById(42L), "42");
+    }
+
+    // EXPLAIN of the first statement the query sent, its parameters bound to the given values
+    private void assertUsesIndex(String index, Supplier<?> query, String... parameters) {
+        statements.clear();
+        query.get();
+        assertFalse(statements.isEmpty(), "No SQL captured");
+        String sql = statements.get(0);
+
+        StringBuilder prepared = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameter);
+            } else {
+                prepared.append(c);
+            }
+        }
+        jdbcTemplate.execute("PREPARE captured AS " + prepared);
+        try {
+            String plan = String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE captured(" + String.join(", ", parameters) + ")", String.class));
+            // "Index Scan using <index> on ..." or "Bitmap Index Scan on <index>"
+            assertTrue(plan.matches("(?s).*\\b(using|Scan on) " + index + "\\b.*"),
+                    () -> "Expected " + index + " in plan of:\n" + sql + "\n" + plan);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE captured");
+        }
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.game._d.repository;
+
+import com.game._d.entity.Quiz;
+import com.game._d.repository.QuizStatsRepositoryCustom.QuizStatsIncrement;
+import com.game._d.service.QuizAnalyticsService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// quiz_stats / quiz_option_stats on an embedded PostgreSQL migrated by Flyway:
+// the increments of several nodes add up instead of overwriting each other
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // each snapshot commits like in production
+class QuizStatsRepositoryTests {
+    private static final EmbeddedPostgres postgres = start();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private QuizStatsRepository quizStatsRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE quiz_option_stats, quiz_stats, quiz, quiz_point, phase");
+        jdbcTemplate.execute("INSERT INTO phase (id, name, unlock_threshold) VALUES (1, 'Phase 1', 0)");
+        jdbcTemplate.execute("INSERT INTO quiz_point (id, positionx, positiony, positionz, trigger_radius, phase_id) "
+                + "VALUES (10, 0, 0, 0, 1, 1)");
+        jdbcTemplate.execute("INSERT INTO quiz (id, question, options, correct_index, quiz_point_id) "
+                + "VALUES (100, 'Question', 'a,b,c,d', 1, 10)");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void addCountsAccumulates() {
+        quizStatsRepository.addCounts(List.of(new QuizStatsIncrement(100L, 10L, 1L, 3, 2, new long[]{1, 2, 0, 0})));
+        quizStatsRepository.addCounts(List.of(new QuizStatsIncrement(100L, 10L, 1L, 2, 0, new long[]{0, 0, 0, 2})));
+
+        var stats = quizStatsRepository.findById(100L).orElseThrow();
+        assertEquals(5L, stats.getAttempts());
+        assertEquals(2L, stats.getCorrectCount());
+        assertEquals(10L, stats.getQuizPointId());
+        assertArrayEquals(new long[]{1, 2, 0, 2}, quizStatsRepository.findAllOptionCounts().get(100L));
+    }
+
+    @Test
+    void nodesSharingTheDatabaseAddUpTheirAnswers() {
+        QuizAnalyticsService first = node();
+        QuizAnalyticsService second = node();
+        Quiz quiz = quizRepository.findById(100L).orElseThrow();
+
+        first.record(quiz, 1, true);
+        first.record(quiz, 0, false);
+        second.record(quiz, 1, true);
+        first.snapshot();
+        second.snapshot();
+        second.record(quiz, 3, false);
+        second.snapshot();
+        first.snapshot();
+
+        for (QuizAnalyticsService node : List.of(first, second)) {
+            QuizAnalyticsService.QuizStatsView view = node.getQuizStats().get(0);
+            assertEquals(4, view.attempts());
+            assertEquals(2, view.correct());
+            assertEquals(List.of(1L, 2L, 0L, 1L), view.optionCounts());
+        }
+        assertEquals(4L, quizStatsRepository.findById(100L).orElseThrow().getAttempts());
+    }
+
+    // V4 moves the comma-separated option counts of V3 to quiz_option_stats
+    @Test
+    void optionCountsAreMigratedToRows() throws Exception {
+        jdbcTemplate.execute("DROP DATABASE IF EXISTS migration");
+        jdbcTemplate.execute("CREATE DATABASE migration");
+        DataSource dataSource = postgres.getDatabase("postgres", "migration");
+        Flyway.configure().dataSource(dataSource).target("3").load().migrate();
+        JdbcTemplate migration = new JdbcTemplate(dataSource);
+        migration.execute("INSERT INTO quiz_stats (quiz_id, attempts, correct_count, option_counts) "
+                + "VALUES (1, 6, 2, '1,2,0,3'), (2, NULL, NULL, NULL)");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertEquals(List.of("1:0:1", "1:1:2", "1:2:0", "1:3:3"), migration.queryForList(
+                "SELECT quiz_id || ':' || option_index || ':' || answers FROM quiz_option_stats "
+                        + "ORDER BY quiz_id, option_index", String.class));
+        assertEquals(0L, migration.queryForObject("SELECT attempts FROM quiz_stats WHERE quiz_id = 2", Long.class));
+    }
+
+    private QuizAnalyticsService node() {
+        QuizAnalyticsService node = new QuizAnalyticsService(quizRepository, quizStatsRepository,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(node, "snapshotBatchSize", 100);
+        node.load();
+        return node;
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
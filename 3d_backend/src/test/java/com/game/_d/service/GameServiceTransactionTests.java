@@ -0,0 +1,28 @@
+package com.game._d.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Methods that save what they read must run in a read-write transaction: a read-only one is routed to a replica
+class GameServiceTransactionTests {
+    private final AnnotationTransactionAttributeSource attributes = new AnnotationTransactionAttributeSource();
+
+    @Test
+    void writingMethodsUseReadWriteTransactions() throws NoSuchMethodException {
+        assertReadWrite(GameService.class.getMethod("equipSkin", Long.class, Long.class), GameService.class);
+        assertReadWrite(GameService.class.getMethod("createPlayer", String.class), GameService.class);
+        assertReadWrite(QuizService.class.getMethod("submitAnswer", Long.class, Long.class, Integer.class), QuizService.class);
+        assertReadWrite(JournalReplayService.class.getMethod("replay"), JournalReplayService.class);
+    }
+
+    private void assertReadWrite(Method method, Class<?> type) {
+        TransactionAttribute attribute = attributes.getTransactionAttribute(method, type);
+        assertNotNull(attribute, method.getName() + " has no transaction");
+        assertFalse(attribute.isReadOnly(), method.getName() + " is read-only");
+    }
+}
@@ -0,0 +1,167 @@
+package com.game._d.service;
+
+import com.game._d.config.datasource.ReadAfterWriteTracker;
+import com.game._d.entity.Player;
+import com.game._d.entity.Quiz;
+import com.game._d.entity.Reward;
+import com.game._d.journal.AnswerEvent;
+import com.game._d.journal.AnswerJournal;
+import com.game._d.repository.PlayerRepository;
+import com.game._d.repository.QuizRepository;
+import com.game._d.repository.RewardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JournalReplayServiceTests {
+    private final QuizRepository quizRepository = mock(QuizRepository.class);
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final RewardRepository rewardRepository = mock(RewardRepository.class);
+
+    private final List<Reward> rewards = List.of(
+            reward(1, "Explorateur Novice", "BADGE", "PASS_QUIZZES:3"),
+            reward(2, "Maitre des Glaces", "SKIN", "PASS_QUIZZES:5"),
+            reward(3, "Seigneur du Feu", "SKIN", "PASS_QUIZZES:6"),
+            reward(4, "Pionnier", "BADGE", "EARLY_ACCESS"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayRebuildsWhatQuizServiceProduced() throws Exception {
+        when(rewardRepository.findAll()).thenReturn(rewards);
+        when(rewardRepository.findByUnlockCondition(anyString())).thenAnswer(invocation -> rewards.stream()
+                .filter(r -> r.getUnlockCondition().equals(invocation.getArgument(0)))
+                .collect(Collectors.toList()));
+        when(quizRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(quiz(invocation.getArgument(0))));
+
+        // player 1 already had points before the journal existed
+        Player live = player(1L, 2, rewards.get(3));
+        Player other = player(2L, 0);
+        when(playerRepository.findById(1L)).thenReturn(Optional.of(live));
+        when(playerRepository.findById(2L)).thenReturn(Optional.of(other));
+
+        AnswerJournal journal = new AnswerJournal(true, directory.toString(), DataSize.ofKilobytes(1), 0, 1024, 16);
+        journal.start();
+        try {
+            QuizService quizService = new QuizService(quizRepository, playerRepository, rewardRepository,
+                    journal, mock(QuizAnalyticsService.class), new ReadAfterWriteTracker(5000));
+            // quiz n expects answer n % 4
+            long[] quizzes = {1, 2, 3, 4, 5, 6, 7};
+            for (long quiz : quizzes) {
+                quizService.submitAnswer(1L, quiz, (int) (quiz % 4));
+                quizService.submitAnswer(2L, quiz, quiz % 2 == 0 ? (int) (quiz % 4) : 9);
+            }
+            assertEquals(9, live.getTotalScore());
+            assertEquals(3, other.getTotalScore());
+
+            // state lost after a bad deploy
+            Player damaged = player(1L, 0, rewards.get(3));
+            Player damagedOther = player(2L, 0);
+            when(playerRepository.findById(1L)).thenReturn(Optional.of(damaged));
+            when(playerRepository.findById(2L)).thenReturn(Optional.of(damagedOther));
+
+            JournalReplayService replayService = new JournalReplayService(journal, playerRepository, rewardRepository);
+            JournalReplayService.ReplayResult result = replayService.replay();
+
+            assertEquals(14, result.events());
+            assertEquals(2, result.playersUpdated());
+            assertEquals(live.getTotalScore(), damaged.getTotalScore());
+            assertEquals(live.getUnlockedRewards(), damaged.getUnlockedRewards());
+            assertEquals(other.getTotalScore(), damagedOther.getTotalScore());
+            assertEquals(other.getUnlockedRewards(), damagedOther.getUnlockedRewards());
+        } finally {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void replayIsRefusedWhenEventsWereLost() throws Exception {
+        AnswerJournal journal = journalWith(AnswerEvent.answer(1, 1, 0, true, 1, 0),
+                gapOf(3),
+                AnswerEvent.answer(1, 2, 0, true, 2, 0));
+        when(journal.isComplete()).thenReturn(true);
+
+        JournalReplayService replayService = new JournalReplayService(journal, playerRepository, rewardRepository);
+        assertThrows(IllegalStateException.class, replayService::replay);
+        verify(playerRepository, never()).save(any());
+    }
+
+    @Test
+    void replayIsRefusedWhenSegmentsWerePruned() throws Exception {
+        AnswerJournal journal = journalWith(AnswerEvent.answer(1, 1, 0, true, 1, 0));
+        when(journal.isComplete()).thenReturn(false);
+
+        JournalReplayService replayService = new JournalReplayService(journal, playerRepository, rewardRepository);
+        assertThrows(IllegalStateException.class, replayService::replay);
+        verify(playerRepository, never()).save(any());
+    }
+
+    @Test
+    void replayFlushesPendingEventsFirst() throws Exception {
+        AnswerJournal journal = journalWith();
+        when(journal.isComplete()).thenReturn(true);
+
+        new JournalReplayService(journal, playerRepository, rewardRepository).replay();
+
+        var order = inOrder(journal);
+        order.verify(journal).flush();
+        order.verify(journal).replay(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AnswerJournal journalWith(AnswerEvent... events) throws Exception {
+        AnswerJournal journal = mock(AnswerJournal.class);
+        doAnswer(invocation -> {
+            Consumer<AnswerEvent> consumer = invocation.getArgument(0);
+            for (AnswerEvent event : events) {
+                consumer.accept(event);
+            }
+            return null;
+        }).when(journal).replay(any(Consumer.class));
+        return journal;
+    }
+
+    private static AnswerEvent gapOf(long dropped) {
+        return new AnswerEvent(AnswerEvent.GAP, 0, dropped, -1, false, -1, 0);
+    }
+
+    private static Quiz quiz(long id) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setCorrectIndex((int) (id % 4));
+        return quiz;
+    }
+
+    private static Player player(Long id, int score, Reward... owned) {
+        Player player = new Player();
+        player.setId(id);
+        player.setTotalScore(score);
+        Set<Reward> unlocked = new HashSet<>(List.of(owned));
+        player.setUnlockedRewards(unlocked);
+        return player;
+    }
+
+    private static Reward reward(long id, String name, String type, String condition) {
+        Reward reward = new Reward();
+        reward.setId(id);
+        reward.setName(name);
+        reward.setType(type);
+        reward.setUnlockCondition(condition);
+        return reward;
+    }
+}
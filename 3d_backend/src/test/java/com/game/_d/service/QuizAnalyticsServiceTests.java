@@ -0,0 +1,310 @@
+package com.game._d.service;
+
+import com.game._d.config.datasource.ReadAfterWriteTracker;
+import com.game._d.entity.Phase;
+import com.game._d.entity.Player;
+import com.game._d.entity.Quiz;
+import com.game._d.entity.QuizPoint;
+import com.game._d.entity.QuizStats;
+import com.game._d.journal.AnswerJournal;
+import com.game._d.repository.PlayerRepository;
+import com.game._d.repository.QuizRepository;
+import com.game._d.repository.QuizStatsRepository;
+import com.game._d.repository.QuizStatsRepositoryCustom.QuizStatsIncrement;
+import com.game._d.repository.RewardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class QuizAnalyticsServiceTests {
+    private final QuizRepository quizRepository = mock(QuizRepository.class);
+    private final QuizStatsRepository quizStatsRepository = mock(QuizStatsRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // phase 1 = quiz points 10, 11 ; phase 2 = quiz point 20
+    private final Phase phase1 = phase(1L);
+    private final Phase phase2 = phase(2L);
+    private final QuizPoint point10 = quizPoint(10L, phase1);
+    private final QuizPoint point11 = quizPoint(11L, phase1);
+    private final QuizPoint point20 = quizPoint(20L, phase2);
+    private final List<Quiz> quizzes = List.of(
+            quiz(100L, point10), quiz(101L, point10), quiz(110L, point11), quiz(200L, point20));
+
+    // quiz_stats / quiz_option_stats shared by every node of a test
+    private final Map<Long, long[]> storedStats = new HashMap<>();     // quiz -> [attempts, correct]
+    private final Map<Long, long[]> storedOptions = new HashMap<>();
+    private final List<List<QuizStatsIncrement>> writes = new ArrayList<>();
+
+    private QuizAnalyticsService analytics;
+
+    @BeforeEach
+    void setUp() {
+        when(quizRepository.findAll()).thenReturn(quizzes);
+        when(quizStatsRepository.findAll()).thenAnswer(invocation -> storedStats.entrySet().stream()
+                .map(e -> stats(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .collect(Collectors.toList()));
+        when(quizStatsRepository.findAllOptionCounts()).thenAnswer(invocation -> {
+            Map<Long, long[]> copy = new HashMap<>();
+            storedOptions.forEach((id, counts) -> copy.put(id, counts.clone()));
+            return copy;
+        });
+        doAnswer(invocation -> {
+            List<QuizStatsIncrement> increments = invocation.getArgument(0);
+            writes.add(List.copyOf(increments));
+            for (QuizStatsIncrement increment : increments) {
+                long[] row = storedStats.computeIfAbsent(increment.quizId(), id -> new long[2]);
+                row[0] += increment.attempts();
+                row[1] += increment.correct();
+                long[] options = storedOptions.computeIfAbsent(increment.quizId(), id -> new long[0]);
+                if (options.length < increment.options().length) {
+                    options = Arrays.copyOf(options, increment.options().length);
+                    storedOptions.put(increment.quizId(), options);
+                }
+                for (int i = 0; i < increment.options().length; i++) {
+                    options[i] += increment.options()[i];
+                }
+            }
+            return null;
+        }).when(quizStatsRepository).addCounts(any());
+
+        analytics = node();
+        analytics.load();
+    }
+
+    @Test
+    void recordCountsAttemptsCorrectAnswersAndOptions() {
+        analytics.record(quizzes.get(0), 1, true);
+        analytics.record(quizzes.get(0), 1, true);
+        analytics.record(quizzes.get(0), 3, false);
+        analytics.record(quizzes.get(0), 7, false); // out of range option still counts as an attempt
+
+        QuizAnalyticsService.QuizStatsView view = stats(analytics, 100L);
+        assertEquals(4, view.attempts());
+        assertEquals(2, view.correct());
+        assertEquals(0.5, view.correctRate());
+        assertEquals(List.of(0L, 2L, 0L, 1L), view.optionCounts());
+        assertEquals(10L, view.quizPointId());
+        assertEquals(1L, view.phaseId());
+    }
+
+    @Test
+    void recordAddsQuizzesCreatedAfterLoad() {
+        analytics.record(quiz(300L, point20), 0, true);
+
+        assertEquals(1, stats(analytics, 300L).attempts());
+    }
+
+    @Test
+    void storedStatisticsAreServedWithLocalAnswers() {
+        storedStats.put(100L, new long[]{5, 3});
+        storedOptions.put(100L, new long[]{1, 3, 1, 0});
+        analytics = node();
+
+        analytics.record(quizzes.get(0), 0, false); // before load
+        analytics.load();
+        analytics.record(quizzes.get(0), 1, true);
+
+        QuizAnalyticsService.QuizStatsView view = stats(analytics, 100L);
+        assertEquals(7, view.attempts());
+        assertEquals(4, view.correct());
+        assertEquals(List.of(2L, 4L, 1L, 0L), view.optionCounts());
+    }
+
+    @Test
+    void aggregatesByQuizPointAndPhase() {
+        analytics.record(quizzes.get(0), 1, true);   // point 10
+        analytics.record(quizzes.get(1), 0, false);  // point 10
+        analytics.record(quizzes.get(2), 1, true);   // point 11
+        analytics.record(quizzes.get(3), 2, true);   // point 20
+        analytics.record(quizzes.get(3), 2, true);   // point 20
+
+        Map<Long, QuizAnalyticsService.GroupStatsView> points = byId(analytics.getQuizPointStats());
+        assertEquals(Set.of(10L, 11L, 20L), points.keySet());
+        assertEquals(new QuizAnalyticsService.GroupStatsView(10L, 2, 2, 1, 0.5), points.get(10L));
+        assertEquals(new QuizAnalyticsService.GroupStatsView(11L, 1, 1, 1, 1.0), points.get(11L));
+        assertEquals(new QuizAnalyticsService.GroupStatsView(20L, 1, 2, 2, 1.0), points.get(20L));
+
+        Map<Long, QuizAnalyticsService.GroupStatsView> phases = byId(analytics.getPhaseStats());
+        assertEquals(new QuizAnalyticsService.GroupStatsView(1L, 3, 3, 2, 2.0 / 3), phases.get(1L));
+        assertEquals(new QuizAnalyticsService.GroupStatsView(2L, 1, 2, 2, 1.0), phases.get(2L));
+    }
+
+    @Test
+    void snapshotWritesOnlyTheChangesSinceTheLastOneInBatches() {
+        analytics.record(quizzes.get(0), 1, true);
+        analytics.record(quizzes.get(1), 0, false);
+        analytics.record(quizzes.get(3), 2, true);
+
+        analytics.snapshot();
+
+        assertEquals(List.of(List.of(100L, 101L), List.of(200L)), quizIds(writes));
+        verify(transactionManager, atLeast(2)).commit(any());
+        QuizStatsIncrement first = writes.get(0).get(0);
+        assertEquals(10L, first.quizPointId());
+        assertEquals(1L, first.phaseId());
+        assertEquals(1, first.attempts());
+        assertEquals(1, first.correct());
+        assertArrayEquals(new long[]{0, 1, 0, 0}, first.options());
+
+        // nothing changed since: no write
+        writes.clear();
+        analytics.snapshot();
+        assertTrue(writes.isEmpty());
+
+        // only the new answers are added
+        analytics.record(quizzes.get(0), 3, false);
+        analytics.snapshot();
+        assertEquals(List.of(List.of(100L)), quizIds(writes));
+        QuizStatsIncrement next = writes.get(0).get(0);
+        assertEquals(1, next.attempts());
+        assertEquals(0, next.correct());
+        assertArrayEquals(new long[]{0, 0, 0, 1}, next.options());
+        assertEquals(2, stats(analytics, 100L).attempts());
+        assertArrayEquals(new long[]{2, 1}, storedStats.get(100L));
+    }
+
+    @Test
+    void failedBatchIsRetriedOnNextSnapshot() {
+        analytics.record(quizzes.get(0), 1, true);
+        doThrow(new RuntimeException("database down")).when(quizStatsRepository).addCounts(any());
+
+        analytics.snapshot();
+        assertEquals(1, stats(analytics, 100L).attempts()); // still served from the local counts
+
+        doAnswer(invocation -> {
+            writes.add(List.copyOf(invocation.<List<QuizStatsIncrement>>getArgument(0)));
+            return null;
+        }).when(quizStatsRepository).addCounts(any());
+        analytics.record(quizzes.get(0), 1, true);
+        analytics.snapshot();
+        assertEquals(2, writes.get(0).get(0).attempts());
+    }
+
+    // two nodes answering the same quiz: both see, and store, the sum of their answers
+    @Test
+    void nodesAddTheirCountsInsteadOfOverwritingEachOther() {
+        QuizAnalyticsService other = node();
+        other.load();
+
+        analytics.record(quizzes.get(0), 1, true);
+        analytics.record(quizzes.get(0), 1, true);
+        analytics.record(quizzes.get(0), 0, false);
+        other.record(quizzes.get(0), 1, true);
+        other.record(quizzes.get(0), 2, false);
+
+        analytics.snapshot();
+        other.snapshot();
+        assertArrayEquals(new long[]{5, 3}, storedStats.get(100L));
+        assertArrayEquals(new long[]{1, 3, 1, 0}, storedOptions.get(100L));
+        assertEquals(5, stats(other, 100L).attempts());
+
+        // the first node picks up the other's answers on its next snapshot
+        analytics.record(quizzes.get(0), 3, false);
+        assertEquals(4, stats(analytics, 100L).attempts()); // 3 of its own stored + 1 local
+        analytics.snapshot();
+        assertEquals(6, stats(analytics, 100L).attempts());
+        assertEquals(List.of(1L, 3L, 1L, 1L), stats(analytics, 100L).optionCounts());
+
+        // a restarted node starts from the shared totals and adds nothing twice
+        QuizAnalyticsService restarted = node();
+        restarted.load();
+        restarted.snapshot();
+        assertArrayEquals(new long[]{6, 3}, storedStats.get(100L));
+        assertEquals(6, stats(restarted, 100L).attempts());
+    }
+
+    @Test
+    void submissionsAreRecordedOnlyAfterCommit() {
+        QuizAnalyticsService recorder = mock(QuizAnalyticsService.class);
+        PlayerRepository playerRepository = mock(PlayerRepository.class);
+        Player player = new Player();
+        player.setId(1L);
+        player.setTotalScore(0);
+        when(playerRepository.findById(1L)).thenReturn(Optional.of(player));
+        when(quizRepository.findById(100L)).thenReturn(Optional.of(quizzes.get(0)));
+        QuizService quizService = new QuizService(quizRepository, playerRepository, mock(RewardRepository.class),
+                mock(AnswerJournal.class), recorder, new ReadAfterWriteTracker(5000));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            quizService.submitAnswer(1L, 100L, 1);
+            verify(recorder, never()).record(any(), anyInt(), anyBoolean());
+
+            // rollback: the synchronizations are discarded without afterCommit
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.initSynchronization();
+
+            quizService.submitAnswer(1L, 100L, 1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(recorder).record(quizzes.get(0), 1, true);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private QuizAnalyticsService node() {
+        QuizAnalyticsService node = new QuizAnalyticsService(quizRepository, quizStatsRepository,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(node, "snapshotBatchSize", 2);
+        return node;
+    }
+
+    private static QuizAnalyticsService.QuizStatsView stats(QuizAnalyticsService node, Long quizId) {
+        return node.getQuizStats().stream()
+                .filter(v -> v.quizId().equals(quizId))
+                .findFirst().orElseThrow();
+    }
+
+    private static QuizStats stats(Long quizId, long attempts, long correct) {
+        QuizStats stats = new QuizStats();
+        stats.setQuizId(quizId);
+        stats.setAttempts(attempts);
+        stats.setCorrectCount(correct);
+        return stats;
+    }
+
+    private static List<List<Long>> quizIds(List<List<QuizStatsIncrement>> writes) {
+        return writes.stream()
+                .map(batch -> batch.stream().map(QuizStatsIncrement::quizId).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, QuizAnalyticsService.GroupStatsView> byId(List<QuizAnalyticsService.GroupStatsView> views) {
+        return views.stream().collect(Collectors.toMap(QuizAnalyticsService.GroupStatsView::id, v -> v));
+    }
+
+    private static Phase phase(Long id) {
+        Phase phase = new Phase();
+        phase.setId(id);
+        return phase;
+    }
+
+    private static QuizPoint quizPoint(Long id, Phase phase) {
+        QuizPoint point = new QuizPoint();
+        point.setId(id);
+        point.setPhase(phase);
+        return point;
+    }
+
+    private static Quiz quiz(Long id, QuizPoint point) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setOptions(List.of("a", "b", "c", "d"));
+        quiz.setCorrectIndex(1);
+        quiz.setQuizPoint(point);
+        return quiz;
+    }
+}